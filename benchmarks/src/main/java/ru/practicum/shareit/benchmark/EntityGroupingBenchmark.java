@@ -0,0 +1,95 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.item.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Группировка бронирований по вещам, как в {@code ItemServiceImpl.findAllByOwner}: по ключу с постоянным
+ * {@code hashCode()} (прежняя стратегия сущностей), по сущности {@link Item} с хэшем по id и по {@code Long} id.
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar EntityGroupingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityGroupingBenchmark {
+    @Param({"10000"})
+    private int bookings;
+
+    @Param({"100", "1000"})
+    private int items;
+
+    private List<Booking> bookingList;
+
+    @Setup
+    public void setUp() {
+        List<Item> itemList = new ArrayList<>(items);
+        for (long id = 1; id <= items; id++) {
+            itemList.add(Item.builder().id(id).name("item" + id).build());
+        }
+        bookingList = new ArrayList<>(bookings);
+        for (long id = 1; id <= bookings; id++) {
+            bookingList.add(Booking.builder().id(id).item(itemList.get((int) (id % items))).build());
+        }
+    }
+
+    @Benchmark
+    public Map<ConstantHashKey, List<Booking>> groupByConstantHashEntity() {
+        return bookingList.stream()
+                .collect(Collectors.groupingBy(booking -> new ConstantHashKey(booking.getItem().getId())));
+    }
+
+    @Benchmark
+    public Map<Item, List<Booking>> groupByEntity() {
+        return bookingList.stream()
+                .collect(Collectors.groupingBy(Booking::getItem));
+    }
+
+    @Benchmark
+    public Map<Long, List<Booking>> groupByItemId() {
+        return bookingList.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+    }
+
+    /**
+     * Ключ с прежней реализацией {@code equals/hashCode} сущностей: равенство по id и хэш класса.
+     */
+    static final class ConstantHashKey {
+        private final Long id;
+
+        ConstantHashKey(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ConstantHashKey)) return false;
+            return id != null && id.equals(((ConstantHashKey) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.client.HttpClientConfig;
+import ru.practicum.shareit.client.ReactiveHttpClientConfig;
+import ru.practicum.shareit.client.ServerExchange;
+import ru.practicum.shareit.client.ShareItServerHttpProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пересылка ответа shareit-server через gateway по настоящему HTTP: заглушка сервера на JDK HttpServer отдаёт
+ * список бронирований, клиенты gateway собраны теми же конфигурациями, что и в приложении, а ответ gateway
+ * записывается конвертером, который выбрал бы MVC. {@code jacksonRoundTrip} — прежний путь через {@code Object}.
+ * Без {@code sun.net.httpserver.nodelay} заглушка ждёт delayed ACK и каждый запрос занимает ~40 мс.
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar GatewayRelayBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class GatewayRelayBenchmark {
+    private static final String API_PREFIX = "/bookings";
+    private final MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
+    private final ByteArrayHttpMessageConverter bytesConverter = new ByteArrayHttpMessageConverter();
+    private final ResourceHttpMessageConverter resourceConverter = new ResourceHttpMessageConverter();
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Param({"10", "100", "1000"})
+    private int bookings;
+
+    private int responseSize;
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private ConnectionProvider connectionProvider;
+    private RestTemplate jacksonRest;
+    private ServerExchange blocking;
+    private ServerExchange reactive;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] serverResponse = new ObjectMapper().writeValueAsBytes(bookingList(bookings));
+        responseSize = serverResponse.length;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(API_PREFIX, exchange -> {
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            exchange.sendResponseHeaders(200, serverResponse.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(serverResponse);
+            }
+        });
+        server.start();
+        String serverUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set("X-Sharer-User-Id", "1");
+
+        ShareItServerHttpProperties properties = new ShareItServerHttpProperties();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpClientConfig blockingConfig = new HttpClientConfig();
+        connectionManager = blockingConfig.shareItServerConnectionManager(properties);
+        httpClient = blockingConfig.shareItServerHttpClient(connectionManager, properties);
+        ClientHttpRequestFactory requestFactory = blockingConfig.shareItServerRequestFactory(httpClient);
+        blocking = blockingConfig.serverExchangeFactory(serverUrl, new RestTemplateBuilder(), requestFactory, meterRegistry)
+                .create(API_PREFIX);
+        jacksonRest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build();
+
+        ReactiveHttpClientConfig reactiveConfig = new ReactiveHttpClientConfig();
+        connectionProvider = reactiveConfig.shareItServerConnectionProvider(properties);
+        reactive = reactiveConfig.serverExchangeFactory(serverUrl, WebClient.builder(),
+                        reactiveConfig.shareItServerReactiveHttpClient(connectionProvider, properties), meterRegistry)
+                .create(API_PREFIX);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connectionProvider.dispose();
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public byte[] jacksonRoundTrip() throws IOException {
+        Object body = jacksonRest.exchange("", HttpMethod.GET, new HttpEntity<>(headers), Object.class).getBody();
+        Output output = new Output(responseSize);
+        jsonConverter.write(Objects.requireNonNull(body), MediaType.APPLICATION_JSON, output);
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] blockingRelay() throws IOException {
+        return relay(blocking);
+    }
+
+    @Benchmark
+    public byte[] reactiveRelay() throws IOException {
+        return relay(reactive);
+    }
+
+    private byte[] relay(ServerExchange exchange) throws IOException {
+        ResponseEntity<Object> response = Objects.requireNonNull(
+                exchange.exchange(HttpMethod.GET, "", headers, null, null).block());
+        Object body = Objects.requireNonNull(response.getBody());
+        Output output = new Output(responseSize);
+        if (body instanceof Resource) {
+            resourceConverter.write((Resource) body, MediaType.APPLICATION_JSON, output);
+        } else {
+            bytesConverter.write((byte[]) body, MediaType.APPLICATION_JSON, output);
+        }
+        return output.toByteArray();
+    }
+
+    private static List<Map<String, Object>> bookingList(int size) {
+        List<Map<String, Object>> bookings = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Map<String, Object> owner = user(id % 50 + 1);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id % 200 + 1);
+            item.put("name", "Дрель ударная " + id);
+            item.put("description", "Мощная дрель с набором свёрл, аккумулятор в комплекте");
+            item.put("available", true);
+            item.put("owner", owner);
+            item.put("request", null);
+
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("id", id);
+            booking.put("start", "2030-01-01T10:00:00");
+            booking.put("end", "2030-01-02T10:00:00");
+            booking.put("item", item);
+            booking.put("booker", user(id % 100 + 51));
+            booking.put("status", "APPROVED");
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private static Map<String, Object> user(long id) {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", id);
+        user.put("name", "user" + id);
+        user.put("email", "user" + id + "@shareit.ru");
+        return user;
+    }
+
+    private static final class Output implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body;
+
+        private Output(int expectedSize) {
+            this.body = new ByteArrayOutputStream(expectedSize);
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        private byte[] toByteArray() {
+            return body.toByteArray();
+        }
+    }
+}
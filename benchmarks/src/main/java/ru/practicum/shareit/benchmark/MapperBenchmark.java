@@ -0,0 +1,140 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.BookingRequestDto;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestDto;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.ItemRequestResponseDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразования всех {@code *Mapper} сервера на заранее построенных сущностях и DTO.
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar MapperBenchmark -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private User user;
+    private UserDto userDto;
+    private Item item;
+    private ItemDto itemDto;
+    private Booking booking;
+    private BookingDto bookingDto;
+    private BookingRequestDto bookingRequestDto;
+    private Comment comment;
+    private CommentDto commentDto;
+    private ItemRequest itemRequest;
+    private ItemRequestDto itemRequestDto;
+    private List<ItemRequestResponseDto.ItemDto> requestItems;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        user = User.builder().id(1L).name("user").email("user@shareit.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@shareit.ru").build();
+        userDto = UserMapper.toUserDto(user);
+        itemRequest = ItemRequest.builder().id(1L).description("Нужна дрель").requestor(booker).created(now).build();
+        itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
+        item = Item.builder().id(1L).name("Дрель").description("Ударная дрель").available(true)
+                .owner(user).request(itemRequest).build();
+        itemDto = ItemMapper.toItemDto(item);
+        booking = Booking.builder().id(1L).start(now.plusDays(1)).end(now.plusDays(2)).item(item).booker(booker)
+                .status(BookingStatus.APPROVED).build();
+        bookingDto = BookingMapper.toBookingDto(booking);
+        bookingRequestDto = BookingRequestDto.builder().itemId(1L).start(now.plusDays(1)).end(now.plusDays(2)).build();
+        comment = Comment.builder().id(1L).text("Отличная дрель").item(item).author(booker).build();
+        commentDto = CommentMapper.toCommentDto(comment);
+        requestItems = List.of(ItemRequestResponseDto.ItemDto.builder().id(1L).name("Дрель").owner(1L)
+                .description("Ударная дрель").available(true).requestId(1L).build());
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return UserMapper.toUserDto(user);
+    }
+
+    @Benchmark
+    public User userFromDto() {
+        return UserMapper.toUser(userDto);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public Item itemFromDto() {
+        return ItemMapper.toItem(itemDto);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public Booking bookingFromDto() {
+        return BookingMapper.toBooking(bookingDto);
+    }
+
+    @Benchmark
+    public Booking bookingFromRequestDto() {
+        return BookingMapper.toBooking(bookingRequestDto);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.toCommentDto(comment);
+    }
+
+    @Benchmark
+    public Comment commentFromDto() {
+        return CommentMapper.toComment(commentDto);
+    }
+
+    @Benchmark
+    public ItemRequestDto itemRequestToDto() {
+        return ItemRequestMapper.toItemRequestDto(itemRequest);
+    }
+
+    @Benchmark
+    public ItemRequest itemRequestFromDto() {
+        return ItemRequestMapper.toItemRequest(itemRequestDto);
+    }
+
+    @Benchmark
+    public ItemRequestResponseDto itemRequestToResponseDto() {
+        return ItemRequestMapper.toItemRequestResponseDto(itemRequest, requestItems);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingDto;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequestResponseDto;
+import ru.practicum.shareit.request.ItemRequestService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути сервисного слоя shareit-server на данных {@link ShareItDataset}.
+ * Запуск: {@code java -jar benchmarks/target/benchmarks.jar ServiceBenchmark -p users=1000 -p bookingsPerItem=50}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final long PAGE_SIZE = 10L;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemRequestService itemRequestService;
+
+    @Setup
+    public void setUp(ShareItDataset dataset) {
+        itemService = dataset.bean(ItemService.class);
+        bookingService = dataset.bean(BookingService.class);
+        itemRequestService = dataset.bean(ItemRequestService.class);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemFindAllByOwner(ShareItDataset dataset) {
+        return itemService.findAllByOwner(dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemDto> itemSearch() {
+        return itemService.search("дрель ремонт", 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingFindAllByState(ShareItDataset dataset) {
+        return bookingService.findAllByState(BookingState.ALL, dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingFindPastByState(ShareItDataset dataset) {
+        return bookingService.findAllByState(BookingState.PAST, dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingFindAllByOwner(ShareItDataset dataset) {
+        return bookingService.findAllByOwner(BookingState.ALL, dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingFindWaitingByOwner(ShareItDataset dataset) {
+        return bookingService.findAllByOwner(BookingState.WAITING, dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ItemRequestResponseDto> itemRequestFindAllByRequestor(ShareItDataset dataset) {
+        return itemRequestService.findAllByRequestorId(dataset.randomUserId());
+    }
+
+    @Benchmark
+    public List<ItemRequestResponseDto> itemRequestFindAllPage(ShareItDataset dataset) {
+        return itemRequestService.findAllSizeFromRequestId(dataset.randomUserId(), 0L, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.InMemoryItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Контекст shareit-server на H2 в памяти, заполненный синтетическими данными:
+ * {@code users} пользователей, у каждого {@code itemsPerUser} вещей, у каждой вещи {@code bookingsPerItem}
+ * бронирований (половина в прошлом, половина в будущем), по одному запросу вещи на пользователя.
+ */
+@State(Scope.Benchmark)
+public class ShareItDataset {
+    private static final int BATCH_SIZE = 1_000;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"10"})
+    private int itemsPerUser;
+
+    @Param({"20"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(InMemoryItemSearchIndex.class).warmUp();
+        context.getBean(BookingIntervalIndex.class).warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1L);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = 1; user <= users; user++) {
+            rows.add(new Object[]{"user" + user, "user" + user + "@shareit.ru"});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO users (name, email) VALUES (?, ?)", rows);
+
+        for (int user = 1; user <= users; user++) {
+            rows.add(new Object[]{"request " + user, user, Timestamp.valueOf(now.minusHours(user))});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO requests (description, requestor_id, created) VALUES (?, ?, ?)", rows);
+
+        long items = (long) users * itemsPerUser;
+        for (long item = 1; item <= items; item++) {
+            long owner = (item - 1) / itemsPerUser + 1;
+            rows.add(new Object[]{"Дрель " + item, "Инструмент номер " + item + " для ремонта", true, owner,
+                    (item - 1) % users + 1});
+        }
+        batchInsert(jdbcTemplate,
+                "INSERT INTO items (name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?)", rows);
+
+        for (long item = 1; item <= items; item++) {
+            for (int booking = 0; booking < bookingsPerItem; booking++) {
+                LocalDateTime start = now.plusDays(2L * (booking - bookingsPerItem / 2));
+                long booker = (item + booking) % users + 1;
+                rows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)), item, booker,
+                        STATUSES[booking % STATUSES.length].name()});
+            }
+            if (rows.size() >= BATCH_SIZE) {
+                batchInsert(jdbcTemplate, "INSERT INTO bookings (booking_id, start_date, end_date, item_id, booker_id, status) "
+                        + "VALUES (NEXT VALUE FOR bookings_seq, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO bookings (booking_id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (NEXT VALUE FOR bookings_seq, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void batchInsert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        rows.clear();
+    }
+}
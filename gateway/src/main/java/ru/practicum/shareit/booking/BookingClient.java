@@ -1,16 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,42 +19,66 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerExchangeFactory serverExchangeFactory) {
+        super(serverExchangeFactory.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> getBookings(Long userId, BookingState state, Long from, Long size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(Long userId, BookingState state, Long from, Long size, String cursor,
+                                                    boolean archived) {
+        Map<String, Object> parameters = pageParameters(state, from, size, cursor);
+        return get(pagePath("", cursor, archived), userId, parameters);
     }
 
-    public ResponseEntity<Object> bookItem(Long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(Long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> updateBooking(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> updateBooking(Long userId, Long bookingId, Boolean approved) {
         return patch(String.format("/%d?approved={approved}",bookingId), userId, Map.of("approved", approved), null);
     }
 
-    public ResponseEntity<Object> findBookingsByOwner(Long userId, BookingState state, Long from, Long size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> updateBookings(Long userId, BookingApprovalRequestDto requestDto) {
+        return patch("", userId, requestDto);
+    }
+
+    public Mono<ResponseEntity<Object>> findBookingsByOwner(Long userId, BookingState state, Long from, Long size, String cursor,
+                                                            boolean archived) {
+        Map<String, Object> parameters = pageParameters(state, from, size, cursor);
+        return get(pagePath("/owner", cursor, archived), userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsSummary(Long userId) {
+        return get("/summary", userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getOwnerBookingsSummary(Long userId) {
+        return get("/owner/summary", userId);
+    }
+
+    public Mono<Void> exportBookingsByOwner(Long userId, String format, HttpServletResponse response) {
+        return stream("/owner/export?format={format}", userId, Map.of("format", format), response);
+    }
+
+    private static String pagePath(String path, String cursor, boolean archived) {
+        String pagePath = path + "?state={state}&from={from}&size={size}";
+        if (cursor != null) {
+            pagePath += "&cursor={cursor}";
+        }
+        return archived ? pagePath + "&archived=true" : pagePath;
+    }
+
+    private static Map<String, Object> pageParameters(BookingState state, Long from, Long size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
\ No newline at end of file
@@ -6,10 +6,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -22,44 +26,83 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Long from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Long size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Long size,
+                                              @RequestParam(name = "cursor", required = false) String cursor,
+                                              @RequestParam(name = "archived", defaultValue = "false") boolean archived) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}, archived={}",
+                stateParam, userId, from, size, cursor, archived);
+        return bookingClient.getBookings(userId, state, from, size, cursor, archived);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PathVariable Long bookingId,
                                          @RequestParam Boolean approved) {
         return bookingClient.updateBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping
+    public Mono<ResponseEntity<Object>> updateAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestBody @Valid BookingApprovalRequestDto requestDto) {
+        log.info("Updating bookings {}, userId={}", requestDto, userId);
+        return bookingClient.updateBookings(userId, requestDto);
+    }
+
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
                                                  @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
-                                                 @RequestParam(defaultValue = "10") @Positive Long size) {
+                                                 @RequestParam(defaultValue = "10") @Positive Long size,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "false") boolean archived) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        return bookingClient.findBookingsByOwner(userId, state, from, size);
+        return bookingClient.findBookingsByOwner(userId, state, from, size, cursor, archived);
+    }
+
+    /**
+     * Число бронирований пользователя в каждом состоянии одним запросом
+     */
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<Object>> getSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getBookingsSummary(userId);
+    }
+
+    /**
+     * Число бронирований вещей владельца в каждом состоянии одним запросом
+     */
+    @GetMapping("/owner/summary")
+    public Mono<ResponseEntity<Object>> getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingClient.getOwnerBookingsSummary(userId);
+    }
+
+    /**
+     * Выгрузка всей истории бронирований владельца (ndjson или csv). Ответ shareit-server пересылается потоком
+     */
+    @GetMapping("/owner/export")
+    public Mono<Void> exportByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                    @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "(?i)ndjson|csv") String format,
+                                    HttpServletResponse response) {
+        log.info("Export bookings of owner {}, format={}", userId, format);
+        return bookingClient.exportBookingsByOwner(userId, format, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApprovalRequestDto {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
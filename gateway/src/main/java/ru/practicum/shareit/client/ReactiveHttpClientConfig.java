@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Неблокирующий режим: запросы к shareit-server отправляются через WebClient поверх общего пула reactor-netty.
+ */
+@Configuration
+@EnableConfigurationProperties(ShareItServerHttpProperties.class)
+@ConditionalOnProperty(name = "shareit-server.mode", havingValue = "reactive")
+public class ReactiveHttpClientConfig {
+
+    /**
+     * reactor-netty ограничивает maxConnections пул одного адреса, а gateway ходит на единственный адрес
+     * shareit-server. Поэтому пул ограничен меньшим из max-total и max-per-route, как и пул Apache HttpClient,
+     * соблюдающий оба ограничения
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(ShareItServerHttpProperties properties) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(Math.min(properties.getMaxTotal(), properties.getMaxPerRoute()))
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleEviction())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public HttpClient shareItServerReactiveHttpClient(ConnectionProvider shareItServerConnectionProvider,
+                                                      ShareItServerHttpProperties properties) {
+        return HttpClient.create(shareItServerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(properties.getConnectTimeout().toMillis()))
+                .option(ChannelOption.SO_KEEPALIVE, properties.isTcpKeepAlive())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .responseTimeout(properties.getReadTimeout())
+                .keepAlive(true);
+    }
+
+    /**
+     * Тела ответов shareit-server ({@code Flux<DataBuffer>}) пишутся клиенту без блокировки потока Tomcat
+     */
+    @Bean
+    public SmartInitializingSingleton relayedBodyReturnValueHandlerInstaller(
+            RequestMappingHandlerAdapter requestMappingHandlerAdapter) {
+        return () -> RelayedBodyReturnValueHandler.install(requestMappingHandlerAdapter);
+    }
+
+    @Bean
+    public ServerExchangeFactory serverExchangeFactory(@Value("${shareit-server.url}") String serverUrl,
+                                                       WebClient.Builder builder,
+                                                       HttpClient shareItServerReactiveHttpClient,
+                                                       MeterRegistry meterRegistry) {
+        WebClient.Builder serverBuilder = builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(shareItServerReactiveHttpClient));
+        return apiPrefix -> new TimedServerExchange(
+                new WebClientServerExchange(serverBuilder.clone().baseUrl(serverUrl + apiPrefix).build()),
+                meterRegistry, apiPrefix);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пишет в ответ gateway тело ответа shareit-server, полученное через WebClient: {@code ResponseEntity}
+ * с телом {@code Flux<DataBuffer>}. Буферы записываются по мере поступления, пока запрос находится
+ * в асинхронном режиме сервлета, поэтому поток Tomcat не ждёт, пока shareit-server передаёт тело.
+ * Остальные {@code ResponseEntity} обрабатывает стандартный {@link HttpEntityMethodProcessor}.
+ */
+class RelayedBodyReturnValueHandler implements HandlerMethodReturnValueHandler {
+    private final HandlerMethodReturnValueHandler delegate;
+
+    RelayedBodyReturnValueHandler(HandlerMethodReturnValueHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Подменяет стандартный обработчик ResponseEntity адаптера этим обработчиком, сохраняя порядок
+     */
+    static void install(RequestMappingHandlerAdapter adapter) {
+        List<HandlerMethodReturnValueHandler> handlers = adapter.getReturnValueHandlers();
+        if (handlers == null) {
+            throw new IllegalStateException("RequestMappingHandlerAdapter is not initialized");
+        }
+        adapter.setReturnValueHandlers(handlers.stream()
+                .map(handler -> handler instanceof HttpEntityMethodProcessor
+                        ? new RelayedBodyReturnValueHandler(handler)
+                        : handler)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return delegate.supportsReturnType(returnType);
+    }
+
+    /**
+     * Запись тела продолжается в новом цикле асинхронной обработки; подписка на тело отменяется,
+     * если запись завершилась ошибкой, истёк таймаут или контейнер сервлетов сообщил об обрыве соединения
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void handleReturnValue(@Nullable Object returnValue, MethodParameter returnType,
+                                  ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+        if (!(returnValue instanceof ResponseEntity) || !(((ResponseEntity<?>) returnValue).getBody() instanceof Flux)) {
+            delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+        ResponseEntity<?> response = (ResponseEntity<?>) returnValue;
+        HttpServletResponse target = webRequest.getNativeResponse(HttpServletResponse.class);
+        if (target == null) {
+            throw new IllegalStateException("Relayed body requires a servlet response");
+        }
+        Flux<DataBuffer> body = (Flux<DataBuffer>) response.getBody();
+        DeferredResult<Object> written = new DeferredResult<>();
+        WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(written, mavContainer);
+        ServerExchange.prepare(target, response.getStatusCodeValue(), response.getHeaders());
+        Disposable.Swap writing = Disposables.swap();
+        written.onTimeout(writing::dispose);
+        written.onError(error -> writing.dispose());
+        writing.update(WebClientServerExchange.write(body, target)
+                .subscribe(null, written::setErrorResult, () -> written.setResult(null)));
+    }
+}
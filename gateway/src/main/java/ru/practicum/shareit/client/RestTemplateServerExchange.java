@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Блокирующая отправка запросов. Тело ответа читается как {@code byte[]} и пересылается клиенту
+ * вместе с заголовками без разбора в Jackson. Запрос выполняется сразу в потоке сервлета,
+ * а результат возвращается готовым Mono, без отложенного вызова.
+ */
+public class RestTemplateServerExchange implements ServerExchange {
+    private final RestTemplate rest;
+
+    public RestTemplateServerExchange(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        try {
+            return Mono.just(exchangeBlocking(method, path, new HttpEntity<>(body, headers), parameters));
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        }
+    }
+
+    @Override
+    public Mono<Void> stream(HttpMethod method,
+                             String path,
+                             HttpHeaders headers,
+                             @Nullable Map<String, Object> parameters,
+                             HttpServletResponse target) {
+        try {
+            streamBlocking(method, path, headers, parameters, target);
+            return Mono.empty();
+        } catch (RuntimeException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private void streamBlocking(HttpMethod method,
+                                String path,
+                                HttpHeaders headers,
+                                @Nullable Map<String, Object> parameters,
+                                HttpServletResponse target) {
+        try {
+            rest.execute(path, method,
+                    request -> request.getHeaders().addAll(headers),
+                    response -> {
+                        ServerExchange.prepare(target, response.getRawStatusCode(), response.getHeaders());
+                        StreamUtils.copy(response.getBody(), target.getOutputStream());
+                        target.flushBuffer();
+                        return null;
+                    },
+                    parameters != null ? parameters : Map.of());
+        } catch (HttpStatusCodeException e) {
+            ServerExchange.prepare(target, e.getRawStatusCode(),
+                    e.getResponseHeaders() != null ? e.getResponseHeaders() : HttpHeaders.EMPTY);
+            try {
+                target.getOutputStream().write(e.getResponseBodyAsByteArray());
+                target.flushBuffer();
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+    }
+
+    private ResponseEntity<Object> exchangeBlocking(HttpMethod method,
+                                                    String path,
+                                                    HttpEntity<Object> requestEntity,
+                                                    @Nullable Map<String, Object> parameters) {
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ServerExchange.relay(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return ServerExchange.relay(shareitServerResponse.getStatusCodeValue(),
+                shareitServerResponse.getHeaders(), shareitServerResponse.getBody());
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Способ отправки запроса в shareit-server: блокирующий (RestTemplate) или неблокирующий (WebClient).
+ */
+public interface ServerExchange {
+    Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding", "content-length", "date");
+
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                          String path,
+                                          HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters,
+                                          @Nullable Object body);
+
+    /**
+     * Пересылает ответ shareit-server в target по мере получения, не собирая тело в память.
+     * Статус и заголовки копируются до первого байта тела, в конце ответ фиксируется (flushBuffer),
+     * иначе контейнер сервлетов заменит тело ответа с кодом ошибки своей страницей ошибки.
+     */
+    Mono<Void> stream(HttpMethod method,
+                      String path,
+                      HttpHeaders headers,
+                      @Nullable Map<String, Object> parameters,
+                      HttpServletResponse target);
+
+    /**
+     * Выставляет статус и заголовки ответа shareit-server в ответ gateway перед потоковой пересылкой тела
+     */
+    static void prepare(HttpServletResponse target, int status, HttpHeaders headers) {
+        target.setStatus(status);
+        headers.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> target.addHeader(name, value));
+            }
+        });
+    }
+
+    /**
+     * Собирает ответ gateway из статуса, заголовков и тела ответа shareit-server без изменения тела.
+     */
+    static ResponseEntity<Object> relay(int status, @Nullable HttpHeaders headers, @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = relayHeaders(status, headers);
+        if (body == null || body.length == 0) {
+            return responseBuilder.build();
+        }
+        return responseBuilder.body(body);
+    }
+
+    /**
+     * То же, но тело пишется в ответ gateway по мере получения буферов ({@link RelayedBodyReturnValueHandler})
+     */
+    static ResponseEntity<Object> relayStreaming(int status, @Nullable HttpHeaders headers, Flux<DataBuffer> body) {
+        return relayHeaders(status, headers).body(body);
+    }
+
+    private static ResponseEntity.BodyBuilder relayHeaders(int status, @Nullable HttpHeaders headers) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    responseBuilder.header(name, values.toArray(String[]::new));
+                }
+            });
+        }
+        return responseBuilder;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Создаёт {@link ServerExchange} для ресурса shareit-server с заданным префиксом пути.
+ */
+@FunctionalInterface
+public interface ServerExchangeFactory {
+
+    ServerExchange create(String apiPrefix);
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Измеряет время каждого запроса к shareit-server (таймер {@code shareit.server.requests}).
+ * Идентификаторы в пути заменяются на {@code {id}}, чтобы число тегов uri не росло вместе с данными.
+ */
+public class TimedServerExchange implements ServerExchange {
+    public static final String METRIC_NAME = "shareit.server.requests";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final String IO_ERROR = "IO_ERROR";
+    private final ServerExchange delegate;
+    private final MeterRegistry meterRegistry;
+    private final String apiPrefix;
+
+    public TimedServerExchange(ServerExchange delegate, MeterRegistry meterRegistry, String apiPrefix) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.apiPrefix = apiPrefix;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return delegate.exchange(method, path, headers, parameters, body)
+                    .doOnSuccess(response -> stop(sample, method, path,
+                            response != null ? String.valueOf(response.getStatusCodeValue()) : IO_ERROR))
+                    .doOnError(e -> stop(sample, method, path, IO_ERROR));
+        });
+    }
+
+    @Override
+    public Mono<Void> stream(HttpMethod method,
+                             String path,
+                             HttpHeaders headers,
+                             @Nullable Map<String, Object> parameters,
+                             HttpServletResponse target) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return delegate.stream(method, path, headers, parameters, target)
+                    .doOnSuccess(done -> stop(sample, method, path, String.valueOf(target.getStatus())))
+                    .doOnError(e -> stop(sample, method, path, IO_ERROR));
+        });
+    }
+
+    private void stop(Timer.Sample sample, HttpMethod method, String path, String status) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .tag("method", method.name())
+                .tag("uri", uriTemplate(path))
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    String uriTemplate(String path) {
+        int query = path.indexOf('?');
+        String withoutQuery = query >= 0 ? path.substring(0, query) : path;
+        return apiPrefix + ID_SEGMENT.matcher(withoutQuery).replaceAll("/{id}");
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * Неблокирующая отправка запросов: поток сервлета освобождается на время ожидания ответа,
+ * а тело ответа пересылается клиенту потоком байтов, без разбора в Jackson и без сборки в памяти.
+ */
+public class WebClientServerExchange implements ServerExchange {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private final WebClient webClient;
+
+    public WebClientServerExchange(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method,
+                                                 String path,
+                                                 HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters,
+                                                 @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        WebClient.RequestHeadersSpec<?> requestWithBody;
+        if (body instanceof Resource) {
+            requestWithBody = request.body(readResource((Resource) body), DataBuffer.class);
+        } else {
+            requestWithBody = body != null ? request.bodyValue(body) : request;
+        }
+        return toGatewayResponse(requestWithBody);
+    }
+
+    @Override
+    public Mono<Void> stream(HttpMethod method,
+                             String path,
+                             HttpHeaders headers,
+                             @Nullable Map<String, Object> parameters,
+                             HttpServletResponse target) {
+        return webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .exchangeToMono(response -> Mono.fromRunnable(() -> ServerExchange.prepare(target,
+                                response.rawStatusCode(), response.headers().asHttpHeaders()))
+                        .then(write(response.bodyToFlux(DataBuffer.class), target)));
+    }
+
+    /**
+     * Пишет тело в ответ gateway по мере поступления буферов и фиксирует ответ. Запись в OutputStream сервлета
+     * блокирующая, поэтому выполняется не на event loop. Буферы освобождаются и после записи, и при отмене
+     * или ошибке, когда они ещё не дошли до записи
+     */
+    static Mono<Void> write(Flux<DataBuffer> body, HttpServletResponse target) {
+        Flux<DataBuffer> pending = body.publishOn(Schedulers.boundedElastic())
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        return Mono.fromCallable(target::getOutputStream)
+                .flatMap(out -> DataBufferUtils.write(pending, out)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.fromCallable(() -> {
+                            target.flushBuffer();
+                            return true;
+                        }))
+                        .then());
+    }
+
+    /**
+     * Потоковое тело читается блокирующим InputStream, поэтому чтение уводится с event loop
+     */
+    private static Flux<DataBuffer> readResource(Resource resource) {
+        return DataBufferUtils.readInputStream(resource::getInputStream, DefaultDataBufferFactory.sharedInstance, STREAM_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Тело не собирается в byte[]: ответ gateway получает его как Flux, и {@link RelayedBodyReturnValueHandler}
+     * пишет буферы клиенту по мере чтения. Коды ошибок shareit-server не превращаются в исключения, а пересылаются как есть
+     */
+    private static Mono<ResponseEntity<Object>> toGatewayResponse(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> {
+                    Flux<DataBuffer> body = response.getBody() != null ? response.getBody() : Flux.empty();
+                    if (!hasBody(response.getStatusCodeValue(), response.getHeaders())) {
+                        body.subscribe(DataBufferUtils::release);
+                        return ServerExchange.relay(response.getStatusCodeValue(), response.getHeaders(), null);
+                    }
+                    return ServerExchange.relayStreaming(response.getStatusCodeValue(), response.getHeaders(), body);
+                });
+    }
+
+    private static boolean hasBody(int status, HttpHeaders headers) {
+        return status != HttpStatus.NO_CONTENT.value() && status != HttpStatus.NOT_MODIFIED.value()
+                && headers.getContentLength() != 0;
+    }
+}
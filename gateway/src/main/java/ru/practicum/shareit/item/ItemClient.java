@@ -1,13 +1,13 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -18,28 +18,27 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerExchangeFactory serverExchangeFactory) {
+        super(serverExchangeFactory.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> saveItem(ItemDto itemDto, Long userId) {
+    public Mono<ResponseEntity<Object>> saveItem(ItemDto itemDto, Long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> saveItemComment(Long userId, Long itemId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> saveItemComment(Long userId, Long itemId, CommentDto commentDto) {
         return post(String.format("/%d/comment", itemId), userId, commentDto);
     }
 
-    public ResponseEntity<Object> patchItem(ItemDto itemDto, Long userId, Long itemId) {
+    public Mono<ResponseEntity<Object>> importItems(Long userId, MediaType contentType, Resource body) {
+        return postStream("/import", userId, contentType, body);
+    }
+
+    public Mono<ResponseEntity<Object>> patchItem(ItemDto itemDto, Long userId, Long itemId) {
         return patch(String.format("/%d", itemId), userId, itemDto);
     }
 
-    public ResponseEntity<Object> findAllItems(Long userId, Long from, Long size) {
+    public Mono<ResponseEntity<Object>> findAllItems(Long userId, Long from, Long size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -47,11 +46,11 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findItemById(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Object>> findItemById(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Long from, Long size) {
+    public Mono<ResponseEntity<Object>> searchItem(String text, Long from, Long size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -2,17 +2,23 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.Create;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -23,40 +29,50 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> post(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> post(@RequestHeader("X-Sharer-User-Id") Long userId,
                                        @Valid @RequestBody ItemDto itemDto) {
         return itemClient.saveItem(itemDto, userId);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postItemComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> postItemComment(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                   @PathVariable Long itemId,
                                                   @RequestBody @Validated(value = Create.class) CommentDto commentDto) {
         return itemClient.saveItemComment(userId, itemId, commentDto);
     }
 
+    /**
+     * Тело пересылается в shareit-server потоком: записи проверяются и вставляются на стороне сервера
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Object>> importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    HttpServletRequest request) throws IOException {
+        return itemClient.importItems(userId, contentType, new InputStreamResource(request.getInputStream()));
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> patchItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> patchItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                             @PathVariable Long itemId,
                                             @RequestBody ItemDto itemDto) {
         return itemClient.patchItem(itemDto, userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
                                                  @RequestParam(defaultValue = "10") @Positive Long size) {
         return itemClient.findAllItems(userId, from, size);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findById(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> findById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                            @PathVariable Long itemId) {
         return itemClient.findItemById(userId, itemId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text,
+    public Mono<ResponseEntity<Object>> search(@RequestParam String text,
                                 @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
                                 @RequestParam(defaultValue = "10") @Positive Long size) {
         return itemClient.searchItem(text, from, size);
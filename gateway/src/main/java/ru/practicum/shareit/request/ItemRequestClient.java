@@ -1,13 +1,11 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchangeFactory;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -17,28 +15,23 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(ServerExchangeFactory serverExchangeFactory) {
+        super(serverExchangeFactory.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> addRequest(ItemRequestDto itemRequestDto, Long userId) {
+    public Mono<ResponseEntity<Object>> addRequest(ItemRequestDto itemRequestDto, Long userId) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(Long userId, Long requestId) {
         return get(String.format("/%d", requestId), userId);
     }
 
-    public ResponseEntity<Object> getAllUserRequests(Long userId) {
+    public Mono<ResponseEntity<Object>> getAllUserRequests(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getALlRequests(Long userId, Long from, Long size) {
+    public Mono<ResponseEntity<Object>> getALlRequests(Long userId, Long from, Long size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
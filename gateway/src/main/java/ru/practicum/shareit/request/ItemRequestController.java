@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.Create;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -21,24 +22,24 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> addRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> addRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @Validated(value = Create.class) @RequestBody ItemRequestDto itemRequestDto) {
         return itemRequestClient.addRequest(itemRequestDto, userId);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @PathVariable(name = "requestId") Long requestId) {
         return itemRequestClient.getRequestById(userId, requestId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getAllUserRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemRequestClient.getAllUserRequests(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getALlRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getALlRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                        @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
                                                        @RequestParam(defaultValue = "10") @Positive Long size) {
         return itemRequestClient.getALlRequests(userId, from, size);
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -20,28 +21,28 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> save(@RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<Object>> save(@RequestBody @Valid UserDto userDto) {
         return userClient.saveUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> patch(@RequestBody UserDto userDto,
+    public Mono<ResponseEntity<Object>> patch(@RequestBody UserDto userDto,
                                         @PathVariable @Positive Long userId) {
         return userClient.patchUser(userDto, userId);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findById(@PathVariable @Positive Long userId) {
+    public Mono<ResponseEntity<Object>> findById(@PathVariable @Positive Long userId) {
         return userClient.getUser(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
+    public Mono<ResponseEntity<Object>> findAll() {
         return userClient.getUsers();
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object>  deleteById(@PathVariable @Positive Long userId) {
+    public Mono<ResponseEntity<Object>>  deleteById(@PathVariable @Positive Long userId) {
         return userClient.deleteUser(userId);
     }
 
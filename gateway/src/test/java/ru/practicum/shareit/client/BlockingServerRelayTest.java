@@ -0,0 +1,8 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-server.mode=blocking")
+class BlockingServerRelayTest extends ServerRelayTest {
+}
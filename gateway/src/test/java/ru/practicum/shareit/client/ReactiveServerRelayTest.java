@@ -0,0 +1,67 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * В Tomcat gateway один поток: если бы он ждал тело ответа shareit-server, второй запрос не был бы обслужен
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"shareit-server.mode=reactive", "server.tomcat.threads.max=1", "server.tomcat.threads.min-spare=1"})
+class ReactiveServerRelayTest extends ServerRelayTest {
+    private static final int HEAD_SIZE = 1024;
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void getBooking_whenBodyStalled_thenTomcatThreadServesOtherRequests() throws IOException {
+        try (Socket stalled = requestBooking(3)) {
+            readHead(stalled.getInputStream());
+
+            ResponseEntity<byte[]> other = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> getBooking(2));
+
+            assertEquals(404, other.getStatusCodeValue());
+        } finally {
+            STALLED_BODY_RELEASE.countDown();
+        }
+    }
+
+    @Test
+    void getBooking_whenClientAbortsMidBody_thenServerResponseCancelled() throws IOException, InterruptedException {
+        try (Socket aborted = requestBooking(4)) {
+            readHead(aborted.getInputStream());
+        }
+
+        assertTrue(ENDLESS_BODY_ABORTED.await(10, TimeUnit.SECONDS),
+                "gateway kept reading the server response after the client went away");
+    }
+
+    private Socket requestBooking(long bookingId) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(5000);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /bookings/" + bookingId + " HTTP/1.1\r\nHost: localhost\r\nX-Sharer-User-Id: 1\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private static void readHead(InputStream in) throws IOException {
+        byte[] head = in.readNBytes(HEAD_SIZE);
+        assertTrue(new String(head, StandardCharsets.US_ASCII).startsWith("HTTP/1.1 200"));
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Пересылка ответа shareit-server через gateway: заглушка сервера отдаёт тело больше 16MB
+ * и ответ с ошибкой, gateway должен вернуть их без изменений в обоих режимах.
+ */
+abstract class ServerRelayTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final byte[] LARGE_BODY = largeBody(17 * 1024 * 1024);
+    private static final byte[] NOT_FOUND_BODY = "{\"error\":\"Booking with id=2 not found\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHUNK = largeBody(64 * 1024);
+    private static final long ENDLESS_BODY_LIMIT = 1024L * 1024 * 1024;
+    /**
+     * Тело /bookings/3 обрывается после первого блока, пока тест не откроет защёлку
+     */
+    protected static final CountDownLatch STALLED_BODY_RELEASE = new CountDownLatch(1);
+    /**
+     * Открывается, когда gateway перестаёт читать бесконечное тело /bookings/4 и закрывает соединение
+     */
+    protected static final CountDownLatch ENDLESS_BODY_ABORTED = new CountDownLatch(1);
+    private static HttpServer server;
+    @Autowired
+    private TestRestTemplate rest;
+
+    @DynamicPropertySource
+    static void shareItServer(DynamicPropertyRegistry registry) throws IOException {
+        if (server == null) {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/bookings/1", exchange -> respond(exchange, 200, LARGE_BODY));
+            server.createContext("/bookings/2", exchange -> respond(exchange, 404, NOT_FOUND_BODY));
+            server.createContext("/bookings/3", ServerRelayTest::respondStalled);
+            server.createContext("/bookings/4", ServerRelayTest::respondEndless);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+        }
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    @Test
+    void getBooking_whenLargeBody_thenRelayedUnchanged() {
+        ResponseEntity<byte[]> response = getBooking(1);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(LARGE_BODY, response.getBody());
+    }
+
+    @Test
+    void getBooking_whenServerError_thenStatusAndBodyRelayed() {
+        ResponseEntity<byte[]> response = getBooking(2);
+
+        assertEquals(404, response.getStatusCodeValue());
+        assertArrayEquals(NOT_FOUND_BODY, response.getBody());
+    }
+
+    protected ResponseEntity<byte[]> getBooking(long bookingId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SHARER_USER_ID_HEADER, "1");
+        return rest.exchange("/bookings/{bookingId}", HttpMethod.GET, new HttpEntity<>(headers), byte[].class,
+                bookingId);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void respondStalled(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(CHUNK);
+            out.flush();
+            STALLED_BODY_RELEASE.await(30, TimeUnit.SECONDS);
+            out.write(CHUNK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respondEndless(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (long written = 0; written < ENDLESS_BODY_LIMIT; written += CHUNK.length) {
+                out.write(CHUNK);
+                out.flush();
+            }
+        } catch (IOException e) {
+            ENDLESS_BODY_ABORTED.countDown();
+        }
+    }
+
+    private static byte[] largeBody(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        body[0] = '"';
+        body[size - 1] = '"';
+        return body;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimedServerExchangeTest {
+    private static final String API_PREFIX = "/bookings";
+    @Mock
+    private ServerExchange delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private TimedServerExchange timedServerExchange;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        timedServerExchange = new TimedServerExchange(delegate, meterRegistry, API_PREFIX);
+    }
+
+    @Test
+    void exchange_whenResponse_thenTaggedWithUriTemplateMethodAndStatus() {
+        when(delegate.exchange(eq(HttpMethod.PATCH), eq("/42?approved=true"), any(), any(), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.status(404).build()));
+
+        timedServerExchange.exchange(HttpMethod.PATCH, "/42?approved=true", new HttpHeaders(),
+                Map.of("approved", true), null).block();
+
+        assertEquals(1, timer("/bookings/{id}", "PATCH", "404").count());
+    }
+
+    @Test
+    void exchange_whenIoError_thenTaggedAsIoError() {
+        when(delegate.exchange(eq(HttpMethod.GET), eq("/owner/7/items/8"), any(), isNull(), isNull()))
+                .thenReturn(Mono.error(new WebClientRequestException(new IOException("Connection refused"),
+                        HttpMethod.GET, URI.create("http://localhost/bookings/owner/7/items/8"), new HttpHeaders())));
+        Mono<ResponseEntity<Object>> exchange = timedServerExchange.exchange(HttpMethod.GET, "/owner/7/items/8",
+                new HttpHeaders(), null, null);
+
+        assertThrows(WebClientRequestException.class, exchange::block);
+        assertEquals(1, timer("/bookings/owner/{id}/items/{id}", "GET", "IO_ERROR").count());
+    }
+
+    @Test
+    void stream_whenResponse_thenTaggedWithTargetStatus() {
+        MockHttpServletResponse target = new MockHttpServletResponse();
+        when(delegate.stream(eq(HttpMethod.GET), eq("/export"), any(), isNull(), eq(target)))
+                .thenReturn(Mono.fromRunnable(() -> target.setStatus(200)));
+
+        timedServerExchange.stream(HttpMethod.GET, "/export", new HttpHeaders(), null, target).block();
+
+        assertEquals(1, timer("/bookings/export", "GET", "200").count());
+    }
+
+    private Timer timer(String uri, String method, String status) {
+        Timer timer = meterRegistry.find(TimedServerExchange.METRIC_NAME)
+                .tags("uri", uri, "method", method, "status", status)
+                .timer();
+        assertNotNull(timer, meterRegistry::getMetersAsString);
+        return timer;
+    }
+}
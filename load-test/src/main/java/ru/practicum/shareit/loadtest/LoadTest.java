@@ -0,0 +1,75 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Сквозной нагрузочный прогон gateway → server → H2.
+ * Запуск после {@code mvn package} из корня проекта:
+ * {@code java -jar load-test/target/load-test.jar --rate=300 --duration=PT60S}.
+ * Для каждой операции пишет {@code <out>/<операция>.hgrm} (миллисекунды) и печатает сводку перцентилей.
+ */
+public final class LoadTest {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try (ShareItCluster cluster = new ShareItCluster()) {
+            cluster.start(options);
+            Workload workload = new Workload(cluster.gatewayUri());
+            workload.seed(httpClient, options.users, options.itemsPerUser);
+            OpenLoopRunner runner = new OpenLoopRunner(httpClient, workload);
+            runner.run(options.rate, options.warmup, options.duration);
+            report(runner, options);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(OpenLoopRunner runner, LoadTestOptions options) throws IOException {
+        System.out.printf(Locale.ROOT, "Target rate %d req/s, gateway mode %s, measured %s%n",
+                options.rate, options.gatewayMode, options.duration);
+        System.out.printf(Locale.ROOT, "%-30s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<Operation, Histogram> entry : runner.histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            System.out.printf(Locale.ROOT, "%-30s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().endpoint,
+                    histogram.getTotalCount(),
+                    runner.errors(entry.getKey()),
+                    millis(histogram, 50.0),
+                    millis(histogram, 90.0),
+                    millis(histogram, 99.0),
+                    millis(histogram, 99.9),
+                    histogram.getMaxValue() / MICROS_PER_MILLI);
+            Path hgrm = options.outputDir.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm), false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        System.out.println("Histograms written to " + options.outputDir.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона в виде {@code --name=value}.
+ */
+final class LoadTestOptions {
+    final Path serverJar;
+    final Path gatewayJar;
+    final Path outputDir;
+    final String gatewayMode;
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    final int users;
+    final int itemsPerUser;
+
+    private LoadTestOptions(Map<String, String> options) {
+        serverJar = Path.of(options.getOrDefault("server-jar", "server/target/shareit-server-0.0.1-SNAPSHOT-exec.jar"));
+        gatewayJar = Path.of(options.getOrDefault("gateway-jar", "gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar"));
+        outputDir = Path.of(options.getOrDefault("out", "load-test/target/reports"));
+        gatewayMode = options.getOrDefault("gateway-mode", "blocking");
+        rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        warmup = Duration.parse(options.getOrDefault("warmup", "PT15S"));
+        duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        users = Integer.parseInt(options.getOrDefault("users", "100"));
+        itemsPerUser = Integer.parseInt(options.getOrDefault("items-per-user", "5"));
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(options);
+    }
+}
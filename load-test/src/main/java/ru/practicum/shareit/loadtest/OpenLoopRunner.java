@@ -0,0 +1,93 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: запросы отправляются по расписанию с постоянной частотой независимо от того,
+ * успели ли ответить предыдущие. Задержка считается от запланированного момента отправки, поэтому
+ * замедление системы не прячется за паузами генератора (coordinated omission).
+ */
+final class OpenLoopRunner {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    private final HttpClient httpClient;
+    private final Workload workload;
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+
+    OpenLoopRunner(HttpClient httpClient, Workload workload) {
+        this.httpClient = httpClient;
+        this.workload = workload;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Отправляет {@code rate} запросов в секунду в течение {@code warmup + duration};
+     * в гистограммы попадают только запросы, запланированные после прогрева
+     */
+    void run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            if (intendedNanos >= endNanos) {
+                break;
+            }
+            long delay = intendedNanos - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            send(Operation.pick(ThreadLocalRandom.current().nextInt(100)), intendedNanos, intendedNanos >= measureFromNanos);
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    Map<Operation, Histogram> histograms() {
+        return histograms;
+    }
+
+    long errors(Operation operation) {
+        return errors.get(operation).sum();
+    }
+
+    private void send(Operation operation, long intendedNanos, boolean measured) {
+        HttpRequest request = workload.request(operation);
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+                    if (measured) {
+                        histograms.get(operation).recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                        if (error != null || response.statusCode() >= 400) {
+                            errors.get(operation).increment();
+                        }
+                    }
+                    if (response != null) {
+                        workload.onResponse(request, response);
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.loadtest;
+
+/**
+ * Операции нагрузочного профиля и их доли в общем потоке запросов.
+ */
+enum Operation {
+    ITEM_SEARCH("GET /items/search", 30),
+    ITEM_VIEW("GET /items/{itemId}", 25),
+    OWNER_BOOKINGS("GET /bookings/owner", 15),
+    BOOKING_CREATE("POST /bookings", 10),
+    BOOKING_APPROVE("PATCH /bookings/{bookingId}", 10),
+    REQUEST_LIST("GET /requests/all", 10);
+
+    private static final int TOTAL_WEIGHT = totalWeight();
+    final String endpoint;
+    final int weight;
+
+    Operation(String endpoint, int weight) {
+        this.endpoint = endpoint;
+        this.weight = weight;
+    }
+
+    /**
+     * Выбирает операцию по значению из диапазона [0, 100)
+     */
+    static Operation pick(int percent) {
+        int bound = percent * TOTAL_WEIGHT / 100;
+        for (Operation operation : values()) {
+            bound -= operation.weight;
+            if (bound < 0) {
+                return operation;
+            }
+        }
+        return ITEM_SEARCH;
+    }
+
+    private static int totalWeight() {
+        int total = 0;
+        for (Operation operation : values()) {
+            total += operation.weight;
+        }
+        return total;
+    }
+}
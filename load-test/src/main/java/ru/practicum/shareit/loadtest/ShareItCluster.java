@@ -0,0 +1,95 @@
+package ru.practicum.shareit.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * shareit-server (H2) и shareit-gateway, запущенные отдельными процессами на свободных портах.
+ * Модули нельзя поднять в одной JVM: у них совпадают имена классов.
+ */
+final class ShareItCluster implements AutoCloseable {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Process server;
+    private Process gateway;
+    private URI gatewayUri;
+
+    void start(LoadTestOptions options) throws IOException, InterruptedException {
+        Files.createDirectories(options.outputDir);
+        int serverPort = freePort();
+        int gatewayPort = freePort();
+        server = launch(options.serverJar, options.outputDir.resolve("server.log"), List.of(
+                "--server.port=" + serverPort,
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN"));
+        gateway = launch(options.gatewayJar, options.outputDir.resolve("gateway.log"), List.of(
+                "--server.port=" + gatewayPort,
+                "--shareit-server.url=http://localhost:" + serverPort,
+                "--shareit-server.mode=" + options.gatewayMode,
+                "--logging.level.root=WARN"));
+        awaitHealthy(URI.create("http://localhost:" + serverPort), server);
+        gatewayUri = URI.create("http://localhost:" + gatewayPort);
+        awaitHealthy(gatewayUri, gateway);
+    }
+
+    URI gatewayUri() {
+        return gatewayUri;
+    }
+
+    @Override
+    public void close() {
+        for (Process process : new Process[]{gateway, server}) {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+    }
+
+    private static Process launch(Path jar, Path log, List<String> arguments) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Jar not found: " + jar.toAbsolutePath() + ", run mvn package first");
+        }
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar.toString()));
+        command.addAll(arguments);
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private void awaitHealthy(URI baseUri, Process process) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(baseUri.resolve("/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Process exited with code " + process.exitValue() + " before " + baseUri + " became healthy");
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // ещё не слушает порт
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(baseUri + " did not become healthy in " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
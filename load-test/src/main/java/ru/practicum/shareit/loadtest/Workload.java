@@ -0,0 +1,145 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тестовые данные, созданные через gateway, и построение запросов для каждой {@link Operation}.
+ */
+final class Workload {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] SEARCH_TERMS = {"дрель", "пила", "лестница", "палатка", "ударная", "аккумулятор"};
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI gatewayUri;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<long[]> items = new ArrayList<>();
+    private final AtomicLong bookingSlots = new AtomicLong();
+    private final Queue<long[]> waitingBookings = new ConcurrentLinkedQueue<>();
+    private final LocalDateTime bookingsFrom = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    Workload(URI gatewayUri) {
+        this.gatewayUri = gatewayUri;
+    }
+
+    /**
+     * Создаёт пользователей, их вещи и по запросу вещи на каждого пользователя
+     */
+    void seed(HttpClient httpClient, int users, int itemsPerUser) throws IOException, InterruptedException {
+        for (int user = 0; user < users; user++) {
+            long userId = createdId(httpClient, post("/users", null,
+                    String.format("{\"name\":\"user%d\",\"email\":\"user%d@load.test\"}", user, user)));
+            userIds.add(userId);
+            for (int item = 0; item < itemsPerUser; item++) {
+                String term = SEARCH_TERMS[(user + item) % SEARCH_TERMS.length];
+                long itemId = createdId(httpClient, post("/items", userId, String.format(
+                        "{\"name\":\"%s %d\",\"description\":\"%s для дома, вариант %d\",\"available\":true}",
+                        term, item, term, user)));
+                items.add(new long[]{itemId, userId});
+            }
+            createdId(httpClient, post("/requests", userId, "{\"description\":\"Нужна " + SEARCH_TERMS[user % SEARCH_TERMS.length] + "\"}"));
+        }
+    }
+
+    /**
+     * Запрос для операции; подтверждение без ожидающих бронирований заменяется созданием бронирования
+     */
+    HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] item = items.get(random.nextInt(items.size()));
+        switch (operation) {
+            case ITEM_SEARCH:
+                return get("/items/search?text=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)] + "&from=0&size=20", null);
+            case ITEM_VIEW:
+                return get("/items/" + item[0], random.nextBoolean() ? item[1] : randomUser(random));
+            case OWNER_BOOKINGS:
+                return get("/bookings/owner?state=ALL&from=0&size=20", item[1]);
+            case BOOKING_APPROVE:
+                long[] booking = waitingBookings.poll();
+                if (booking != null) {
+                    return HttpRequest.newBuilder(gatewayUri.resolve("/bookings/" + booking[0] + "?approved=true"))
+                            .timeout(REQUEST_TIMEOUT)
+                            .header(USER_HEADER, String.valueOf(booking[1]))
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build();
+                }
+                return bookingCreate(random);
+            case BOOKING_CREATE:
+                return bookingCreate(random);
+            default:
+                return get("/requests/all?from=0&size=20", randomUser(random));
+        }
+    }
+
+    /**
+     * Запоминает созданные бронирования, чтобы позже их подтвердить
+     */
+    void onResponse(HttpRequest request, HttpResponse<String> response) {
+        if ("POST".equals(request.method()) && response.statusCode() == 200) {
+            try {
+                JsonNode booking = objectMapper.readTree(response.body());
+                waitingBookings.add(new long[]{booking.path("id").asLong(), booking.path("item").path("owner").path("id").asLong()});
+            } catch (IOException e) {
+                throw new IllegalStateException("Unexpected booking response: " + response.body(), e);
+            }
+        }
+    }
+
+    private HttpRequest bookingCreate(ThreadLocalRandom random) {
+        long slot = bookingSlots.getAndIncrement();
+        long[] item = items.get((int) (slot % items.size()));
+        LocalDateTime start = bookingsFrom.plusHours(2 * (slot / items.size()));
+        long booker = item[1];
+        while (booker == item[1]) {
+            booker = randomUser(random);
+        }
+        return post("/bookings", booker, String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                item[0], start, start.plusHours(1)));
+    }
+
+    private long randomUser(ThreadLocalRandom random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    private HttpRequest get(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(gatewayUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET();
+        if (userId != null) {
+            builder.header(USER_HEADER, String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, Long userId, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(gatewayUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (userId != null) {
+            builder.header(USER_HEADER, String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private long createdId(HttpClient httpClient, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).path("id").asLong();
+    }
+}
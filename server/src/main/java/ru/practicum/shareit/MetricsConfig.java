@@ -0,0 +1,19 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Таймеры {@code shareit.service} для классов сервисов, помеченных {@link io.micrometer.core.annotation.Timed}.
+ * Методы репозиториев измеряются автоконфигурацией Spring Boot ({@code spring.data.repository.invocations}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
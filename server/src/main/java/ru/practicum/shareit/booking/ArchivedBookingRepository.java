@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends Repository<ArchivedBooking, Long> {
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<ArchivedBooking> findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(Long bookerId, Long itemId,
+                                                                               LocalDateTime end, BookingStatus status);
+}
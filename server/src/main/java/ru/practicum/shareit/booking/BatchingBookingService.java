@@ -0,0 +1,283 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.sql.StatementCounter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Групповое сохранение бронирований: запросы {@link #save} копятся в очереди не дольше {@code window}
+ * (или до {@code max-size} штук) и сохраняются одной транзакцией: сначала все бронирования пакета проверяются
+ * ({@link BookingServiceImpl#prepare}), затем сохраняются ({@link BookingServiceImpl#persist}), так что проверки
+ * не сбрасывают вставки по одной и те уходят в БД JDBC-пакетом.
+ * Каждый запрос получает свой результат; ошибка проверки одного бронирования не влияет на остальные,
+ * а при неудачном коммите бронирования пакета сохраняются по одному. Резервы в {@link BookingIntervalIndex}
+ * снимает сам {@link BookingServiceImpl#prepare}, когда транзакция пакета не фиксируется.
+ * Запрос ждёт результата не дольше {@code timeout}; упавший поток записи перезапускается при следующем запросе.
+ * SQL-запросы потока записи учитываются в бюджете запроса-владельца ({@link StatementCounter}),
+ * кроме общих для пакета вставок при коммите.
+ * Остальные методы делегируются {@link BookingServiceImpl}.
+ */
+@Slf4j
+@Primary
+@Service
+@EnableConfigurationProperties(BookingBatchProperties.class)
+@ConditionalOnProperty(name = "shareit.booking.batch.enabled", havingValue = "true")
+public class BatchingBookingService implements BookingService {
+    static final String GROUP_COMMIT_TRANSACTION = BatchingBookingService.class.getName() + ".write";
+    private final BookingServiceImpl delegate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingBatchProperties properties;
+    private final BlockingQueue<PendingBooking> queue;
+    private volatile Thread writer;
+    private volatile boolean running = true;
+
+    public BatchingBookingService(BookingServiceImpl delegate,
+                                  PlatformTransactionManager transactionManager,
+                                  BookingBatchProperties properties) {
+        this.delegate = delegate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName(GROUP_COMMIT_TRANSACTION);
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        ensureWriterAlive();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+            current.join(properties.getWindow().toMillis() + 1000);
+        }
+    }
+
+    @Override
+    public BookingDto save(BookingRequestDto bookingRequestDto, Long userId) {
+        ensureWriterAlive();
+        PendingBooking pending = new PendingBooking(bookingRequestDto, userId, StatementCounter.current());
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceOverloadedException("Booking queue is full, try again later");
+        }
+        try {
+            return pending.result.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return abandon(pending, "Booking was not saved within " + properties.getTimeout() + ", try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return abandon(pending, "Interrupted while waiting for the booking to be saved");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Снимает бронирование с ожидания: поток записи пропускает завершённые запросы.
+     * Если бронирование успели сохранить, возвращает его. Если оно сохраняется прямо сейчас,
+     * запрос всё равно получает ошибку, а бронирование может остаться в БД
+     */
+    private BookingDto abandon(PendingBooking pending, String message) {
+        ServiceOverloadedException error = new ServiceOverloadedException(message);
+        queue.remove(pending);
+        if (pending.result.completeExceptionally(error)) {
+            throw error;
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private synchronized void ensureWriterAlive() {
+        if (!running || writer != null && writer.isAlive()) {
+            return;
+        }
+        if (writer != null) {
+            log.error("Booking batch writer has stopped, starting a new one");
+        }
+        writer = new Thread(this::writeLoop, "booking-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public BookingDto update(Long userId, Long bookingId, Boolean approved) {
+        return delegate.update(userId, bookingId, approved);
+    }
+
+    @Override
+    public List<BookingApprovalResultDto> updateAll(Long userId, BookingApprovalDto approval) {
+        return delegate.updateAll(userId, approval);
+    }
+
+    @Override
+    public BookingDto findById(Long bookingId, Long userId) {
+        return delegate.findById(bookingId, userId);
+    }
+
+    @Override
+    public List<BookingDto> findAllByState(BookingState state, Long userId, Long from, Long size) {
+        return delegate.findAllByState(state, userId, from, size);
+    }
+
+    @Override
+    public List<BookingDto> findAllByState(BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return delegate.findAllByState(state, userId, cursor, size);
+    }
+
+    @Override
+    public List<BookingDto> findAllByOwner(BookingState state, Long userId, Long from, Long size) {
+        return delegate.findAllByOwner(state, userId, from, size);
+    }
+
+    @Override
+    public List<BookingDto> findAllByOwner(BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return delegate.findAllByOwner(state, userId, cursor, size);
+    }
+
+    @Override
+    public List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, Long from, Long size) {
+        return delegate.findArchived(party, state, userId, from, size);
+    }
+
+    @Override
+    public List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return delegate.findArchived(party, state, userId, cursor, size);
+    }
+
+    @Override
+    public Map<BookingState, Long> countByState(BookingParty party, Long userId) {
+        return delegate.countByState(party, userId);
+    }
+
+    private void writeLoop() {
+        List<PendingBooking> batch = new ArrayList<>(properties.getMaxSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getWindow().toNanos();
+                while (batch.size() < properties.getMaxSize()) {
+                    PendingBooking next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    log.error("Failed to write a batch of {} bookings", batch.size(), e);
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<PendingBooking> batch) {
+        Map<PendingBooking, Booking> prepared = new LinkedHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingBooking pending : batch) {
+                    if (pending.result.isDone()) {
+                        continue;
+                    }
+                    try {
+                        prepared.put(pending, prepare(pending));
+                    } catch (RuntimeException e) {
+                        pending.result.completeExceptionally(e);
+                    }
+                }
+                Iterator<Booking> saved = delegate.persist(new ArrayList<>(prepared.values())).iterator();
+                prepared.replaceAll((pending, booking) -> saved.next());
+            });
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} bookings failed, saving them one by one", prepared.size(), e);
+            prepared.keySet().forEach(this::writeSingle);
+            return;
+        }
+        prepared.forEach((pending, booking) -> pending.result.complete(BookingMapper.toBookingDto(booking)));
+    }
+
+    private void writeSingle(PendingBooking pending) {
+        if (pending.result.isDone()) {
+            return;
+        }
+        try {
+            pending.result.complete(save(pending));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private BookingDto save(PendingBooking pending) {
+        StatementCounter.resume(pending.statements);
+        try {
+            return delegate.save(pending.request, pending.userId);
+        } finally {
+            StatementCounter.suspend();
+        }
+    }
+
+    private Booking prepare(PendingBooking pending) {
+        StatementCounter.resume(pending.statements);
+        try {
+            return delegate.prepare(pending.request, pending.userId);
+        } finally {
+            StatementCounter.suspend();
+        }
+    }
+
+    static class PendingBooking {
+        private final BookingRequestDto request;
+        private final Long userId;
+        private final StatementCounter.Statements statements;
+        final CompletableFuture<BookingDto> result = new CompletableFuture<>();
+
+        PendingBooking(BookingRequestDto request, Long userId, StatementCounter.Statements statements) {
+            this.request = request;
+            this.userId = userId;
+            this.statements = statements;
+        }
+    }
+}
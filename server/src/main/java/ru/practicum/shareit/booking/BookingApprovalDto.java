@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Value;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Value
+@Builder
+public class BookingApprovalDto {
+    @NotEmpty
+    @Size(max = 100)
+    List<@NotNull Long> bookingIds;
+    @NotNull
+    Boolean approved;
+}
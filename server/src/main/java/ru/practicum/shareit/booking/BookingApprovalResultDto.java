@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Результат подтверждения одного бронирования из пакета.
+ * NOT_FOUND также возвращается для бронирований чужих вещей, как и в PATCH /bookings/{bookingId}.
+ */
+@Value
+@Builder
+public class BookingApprovalResultDto {
+    Long bookingId;
+    Outcome outcome;
+    BookingStatus status;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        NOT_WAITING
+    }
+}
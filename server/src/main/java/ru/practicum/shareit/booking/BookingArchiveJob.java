@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Периодически переносит в архив бронирования, завершившиеся больше retention назад
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.archive.enabled", havingValue = "true")
+public class BookingArchiveJob {
+    private final BookingArchiver bookingArchiver;
+    private final Duration retention;
+
+    public BookingArchiveJob(BookingArchiver bookingArchiver,
+                             @Value("${shareit.booking.archive.retention}") Duration retention) {
+        this.bookingArchiver = bookingArchiver;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        int archived;
+        do {
+            archived = bookingArchiver.archive(cutoff);
+            total += archived;
+        } while (archived > 0);
+        if (total > 0) {
+            log.info("Archived {} bookings ended before {}", total, cutoff);
+        }
+    }
+}
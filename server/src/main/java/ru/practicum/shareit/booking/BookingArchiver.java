@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Перенос давно завершённых бронирований из bookings в архивную таблицу bookings_archive.
+ * Ожидающие подтверждения бронирования не переносятся, как и бронирование, на которое ссылается
+ * сводка вещи как на последнее. Подтверждённое бронирование переносится, только если у вещи есть
+ * подтверждённое бронирование, начавшееся позже: иначе оно может оказаться последним, а пересчёт сводки
+ * ({@link ru.practicum.shareit.item.ItemBookingSummaryService#recalculate}) ищет последнее только в bookings.
+ * Все запросы ограничены по start_date, поэтому затрагивают только старые секции.
+ */
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class BookingArchiver {
+    private static final String SELECT_IDS_SQL = "SELECT b.booking_id FROM bookings b "
+            + "WHERE b.start_date < :cutoff AND b.end_date < :cutoff AND b.status <> 'WAITING' "
+            + "AND NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.last_booking_id = b.booking_id) "
+            + "AND (b.status <> 'APPROVED' OR EXISTS (SELECT 1 FROM bookings l WHERE l.item_id = b.item_id "
+            + "AND l.status = 'APPROVED' AND l.start_date < :cutoff AND (l.start_date > b.start_date "
+            + "OR l.start_date = b.start_date AND l.booking_id > b.booking_id))) "
+            + "ORDER BY b.end_date LIMIT :limit";
+    private static final String INSERT_SQL = "INSERT INTO bookings_archive "
+            + "(booking_id, start_date, end_date, item_id, booker_id, status) "
+            + "SELECT booking_id, start_date, end_date, item_id, booker_id, status FROM bookings "
+            + "WHERE booking_id IN (:ids) AND start_date < :cutoff";
+    private static final String DELETE_SQL = "DELETE FROM bookings WHERE booking_id IN (:ids) AND start_date < :cutoff";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    @Value("${shareit.booking.archive.batch-size}")
+    private int batchSize;
+
+    /**
+     * Переносит одну порцию бронирований, завершившихся раньше cutoff
+     *
+     * @return число перенесённых бронирований; 0 — переносить больше нечего
+     */
+    @Transactional
+    public int archive(LocalDateTime cutoff) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("limit", batchSize);
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_SQL, parameters, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        parameters.addValue("ids", ids);
+        jdbcTemplate.update(INSERT_SQL, parameters);
+        return jdbcTemplate.update(DELETE_SQL, parameters);
+    }
+}
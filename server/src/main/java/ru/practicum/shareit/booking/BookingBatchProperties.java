@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки группового сохранения бронирований ({@link BatchingBookingService}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.batch")
+public class BookingBatchProperties {
+    private boolean enabled = false;
+    private Duration window = Duration.ofMillis(5);
+    private int maxSize = 100;
+    private int queueCapacity = 10_000;
+    /**
+     * Сколько запрос ждёт сохранения своего бронирования, прежде чем получить ошибку
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -8,12 +9,14 @@ import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 @Validated
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final BookingService bookingService;
 
     @PostMapping
@@ -29,6 +32,12 @@ public class BookingController {
         return bookingService.update(userId, bookingId, approved);
     }
 
+    @PatchMapping
+    public List<BookingApprovalResultDto> updateAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @Valid @RequestBody BookingApprovalDto approval) {
+        return bookingService.updateAll(userId, approval);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto findById(@PathVariable Long bookingId,
                                @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -36,22 +45,74 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> findAllByState(
+    public ResponseEntity<List<BookingDto>> findAllByState(
             @RequestHeader("X-Sharer-User-Id") Long userId,
             @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
             @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
-            @RequestParam(defaultValue = "10") @Positive Long size) {
+            @RequestParam(defaultValue = "10") @Positive Long size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean archived) {
         BookingState state = bookingStateFromStateParam(stateParam);
-        return bookingService.findAllByState(state, userId, from, size);
+        if (archived) {
+            return withNextCursor(findArchived(BookingParty.BOOKER, state, userId, from, size, cursor), size);
+        }
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.findAllByState(state, userId, from, size)
+                : bookingService.findAllByState(state, userId, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                           @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
-                                           @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
-                                           @RequestParam(defaultValue = "10") @Positive Long size) {
+    public ResponseEntity<List<BookingDto>> findAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam(name = "state", required = false, defaultValue = "ALL") String stateParam,
+                                                           @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
+                                                           @RequestParam(defaultValue = "10") @Positive Long size,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "false") boolean archived) {
         BookingState state = bookingStateFromStateParam(stateParam);
-        return bookingService.findAllByOwner(state, userId, from, size);
+        if (archived) {
+            return withNextCursor(findArchived(BookingParty.OWNER, state, userId, from, size, cursor), size);
+        }
+        List<BookingDto> bookings = cursor == null
+                ? bookingService.findAllByOwner(state, userId, from, size)
+                : bookingService.findAllByOwner(state, userId, BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
+    }
+
+    /**
+     * Число бронирований арендатора в каждом состоянии
+     */
+    @GetMapping("/summary")
+    public Map<BookingState, Long> summary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countByState(BookingParty.BOOKER, userId);
+    }
+
+    /**
+     * Число бронирований вещей владельца в каждом состоянии
+     */
+    @GetMapping("/owner/summary")
+    public Map<BookingState, Long> ownerSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countByState(BookingParty.OWNER, userId);
+    }
+
+    /**
+     * Выдача из архива завершённых бронирований: те же состояния и постраничность, что и у основной выдачи
+     */
+    private List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId,
+                                          Long from, Long size, String cursor) {
+        return cursor == null
+                ? bookingService.findArchived(party, state, userId, from, size)
+                : bookingService.findArchived(party, state, userId, BookingCursor.decode(cursor), size);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Long size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        String nextCursor = BookingCursor.after(bookings.get(bookings.size() - 1)).encode();
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, nextCursor)
+                .body(bookings);
     }
 
     private BookingState bookingStateFromStateParam(String stateParam) {
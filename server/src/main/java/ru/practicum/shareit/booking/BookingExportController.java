@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/bookings/owner/export")
+public class BookingExportController {
+
+    private final BookingExportService bookingExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Отдаёт историю бронирований владельца файлом NDJSON или CSV.
+     * Заголовки ответа выставляются только после проверки пользователя, чтобы ошибка вернулась обычным JSON.
+     */
+    @GetMapping
+    public void exportByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                              @RequestParam(defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+        if (exportFormat == null) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        try (LazyExportWriter writer = new LazyExportWriter(exportFormat, response)) {
+            bookingExportService.exportByOwner(userId, writer);
+            writer.open();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class LazyExportWriter implements BookingExportWriter {
+        private final BookingExportFormat format;
+        private final HttpServletResponse response;
+        private BookingExportWriter delegate;
+
+        private LazyExportWriter(BookingExportFormat format, HttpServletResponse response) {
+            this.format = format;
+            this.response = response;
+        }
+
+        @Override
+        public void write(BookingView booking) throws IOException {
+            open().write(booking);
+        }
+
+        private BookingExportWriter open() throws IOException {
+            if (delegate == null) {
+                response.setContentType(format.getMediaType().toString());
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings." + format.getExtension())
+                        .build()
+                        .toString());
+                delegate = format.open(response.getOutputStream(), objectMapper);
+            }
+            return delegate;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+}
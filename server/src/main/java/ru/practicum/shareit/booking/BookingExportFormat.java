@@ -0,0 +1,118 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Формат выгрузки истории бронирований. Каждая строка пишется в поток сразу, без накопления в памяти.
+ */
+public enum BookingExportFormat {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson") {
+        @Override
+        public BookingExportWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            return new BookingExportWriter() {
+                @Override
+                public void write(BookingView booking) throws IOException {
+                    writer.writeValue(generator, booking);
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    generator.close();
+                }
+            };
+        }
+    },
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv") {
+        private static final String HEADER = "id,start,end,status,itemId,itemName,itemDescription,itemAvailable,"
+                + "bookerId,bookerName,bookerEmail";
+
+        @Override
+        public BookingExportWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.write('\n');
+            return new BookingExportWriter() {
+                @Override
+                public void write(BookingView booking) throws IOException {
+                    writer.write(String.join(",",
+                            String.valueOf(booking.getId()),
+                            formatDate(booking.getStart()),
+                            formatDate(booking.getEnd()),
+                            String.valueOf(booking.getStatus()),
+                            String.valueOf(booking.getItemId()),
+                            escape(booking.getItemName()),
+                            escape(booking.getItemDescription()),
+                            String.valueOf(booking.getItemAvailable()),
+                            String.valueOf(booking.getBookerId()),
+                            escape(booking.getBookerName()),
+                            escape(booking.getBookerEmail())));
+                    writer.write('\n');
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.close();
+                }
+            };
+        }
+    };
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    BookingExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract BookingExportWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException;
+
+    public static BookingExportFormat from(String format) {
+        for (BookingExportFormat value : BookingExportFormat.values()) {
+            if (value.name().equals(format.toUpperCase(Locale.ROOT))) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String formatDate(LocalDateTime date) {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date);
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Выгрузка полной истории бронирований владельца, включая архив {@link BookingArchiver}.
+ * Строки читаются однонаправленным курсором порциями по fetch-size и сразу пишутся в выходной поток,
+ * поэтому память не зависит от длины истории. Соединение с БД занято, пока клиент читает выгрузку.
+ */
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class BookingExportService {
+    private static final String SELECT_BY_OWNER_SQL = "SELECT b.booking_id, b.start_date, b.end_date, b.status, "
+            + "i.item_id, i.name AS item_name, i.description, i.is_available, "
+            + "u.user_id, u.name AS booker_name, u.email "
+            + "FROM (SELECT booking_id, start_date, end_date, status, item_id, booker_id FROM bookings "
+            + "UNION ALL "
+            + "SELECT booking_id, start_date, end_date, status, item_id, booker_id FROM bookings_archive) b "
+            + "JOIN items i ON i.item_id = b.item_id "
+            + "JOIN users u ON u.user_id = b.booker_id "
+            + "WHERE i.owner_id = ? "
+            + "ORDER BY b.start_date DESC, b.booking_id DESC";
+    private final UserService userService;
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${shareit.booking.export.fetch-size}")
+    private int fetchSize;
+
+    /**
+     * Пишет бронирования вещей владельца ownerId, начиная с самых поздних.
+     * Курсор PostgreSQL работает только вне autocommit, поэтому выгрузка идёт в транзакции.
+     */
+    @Transactional(readOnly = true)
+    public void exportByOwner(Long ownerId, BookingExportWriter writer) {
+        userService.checkIfUserExists(ownerId);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_OWNER_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, ownerId);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            try {
+                writer.write(toBookingView(resultSet));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static BookingView toBookingView(ResultSet resultSet) throws SQLException {
+        return new BookingView(
+                resultSet.getLong("booking_id"),
+                resultSet.getTimestamp("start_date").toLocalDateTime(),
+                resultSet.getTimestamp("end_date").toLocalDateTime(),
+                BookingStatus.valueOf(resultSet.getString("status")),
+                resultSet.getLong("item_id"),
+                resultSet.getString("item_name"),
+                resultSet.getString("description"),
+                resultSet.getBoolean("is_available"),
+                null, null, null, null, null, null, null, null, null,
+                resultSet.getLong("user_id"),
+                resultSet.getString("booker_name"),
+                resultSet.getString("email"));
+    }
+}
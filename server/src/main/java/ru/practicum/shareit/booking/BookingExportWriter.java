@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Построчная запись выгрузки бронирований в выходной поток
+ */
+public interface BookingExportWriter extends Closeable {
+    void write(BookingView booking) throws IOException;
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.UnavailableError;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс занятых интервалов вещей (бронирования в статусах WAITING и APPROVED) — единственная проверка
+ * пересечения бронирований: {@link BookingServiceImpl#save} не обращается за ней к БД.
+ * Индекс хранится в памяти экземпляра и видит только его бронирования и подтверждения, поэтому
+ * сервер должен работать в одном экземпляре: бронирование через другой экземпляр индекс бы пропустил,
+ * а отклонённое через другой экземпляр продолжал бы считать занятым.
+ * Для каждой вещи хранятся интервалы [start, end) каждого бронирования и число бронирований,
+ * покрывающих каждый отрезок времени, поэтому проверка пересечения выполняется за O(log n),
+ * а освобождение снимает ровно одно бронирование, даже если загруженные из БД бронирования пересекаются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final String ITEM_ALREADY_BOOKED_MSG = "Item with id=%d is already booked between %s and %s";
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    /**
+     * Загружает актуальные (ещё не завершившиеся) бронирования при старте приложения.
+     * Транзакция не readOnly, чтобы чтение шло с основной БД: отстающая реплика пропустила бы свежие бронирования
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        List<Booking> bookings = bookingRepository.findAllByStatusInAndEndIsAfter(BLOCKING_STATUSES, LocalDateTime.now());
+        int overlapping = 0;
+        for (Booking booking : bookings) {
+            ItemIntervals intervals = intervalsFor(booking.getItem().getId());
+            synchronized (intervals) {
+                if (!intervals.isFree(booking.getStart(), booking.getEnd())) {
+                    overlapping++;
+                }
+                intervals.add(booking.getStart(), booking.getEnd());
+            }
+        }
+        if (overlapping > 0) {
+            log.warn("{} loaded bookings overlap other bookings of the same item", overlapping);
+        }
+        log.info("Booking interval index warmed up with {} bookings for {} items", bookings.size(), intervalsByItem.size());
+    }
+
+    /**
+     * Резервирует интервал [start, end) для вещи.
+     *
+     * @throws UnavailableError если интервал пересекается с уже занятым
+     */
+    public void reserve(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsFor(itemId);
+        synchronized (intervals) {
+            intervals.evictFinished(LocalDateTime.now());
+            if (!intervals.isFree(start, end)) {
+                throw new UnavailableError(String.format(ITEM_ALREADY_BOOKED_MSG, itemId, start, end));
+            }
+            intervals.add(start, end);
+        }
+    }
+
+    /**
+     * Освобождает интервал одного бронирования. Интервал, которого нет в индексе
+     * (например, уже завершившийся), ничего не освобождает
+     */
+    public void release(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals = intervalsByItem.get(itemId);
+        if (intervals == null) {
+            return;
+        }
+        synchronized (intervals) {
+            intervals.remove(start, end);
+        }
+    }
+
+    private ItemIntervals intervalsFor(Long itemId) {
+        return intervalsByItem.computeIfAbsent(itemId, id -> new ItemIntervals());
+    }
+
+    /**
+     * Бронирования одной вещи. Доступ синхронизируется на самом объекте
+     */
+    private static class ItemIntervals {
+        /**
+         * Число бронирований, покрывающих время от ключа до следующего ключа. Соседние ключи
+         * всегда с разными значениями, а за последним ключом значение 0
+         */
+        private final NavigableMap<LocalDateTime, Integer> coverage = new TreeMap<>();
+        /**
+         * Интервалы бронирований с числом бронирований на каждый, упорядоченные по окончанию
+         */
+        private final NavigableMap<Interval, Integer> bookings = new TreeMap<>(Interval.BY_END);
+
+        /**
+         * Свободно ли [start, end): в start ничего не занято, а следующая граница, за которой время занято,
+         * не раньше end
+         */
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            if (countAt(start) > 0) {
+                return false;
+            }
+            LocalDateTime next = coverage.higherKey(start);
+            return next == null || !next.isBefore(end);
+        }
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            bookings.merge(new Interval(start, end), 1, Integer::sum);
+            shift(start, end, 1);
+        }
+
+        void remove(LocalDateTime start, LocalDateTime end) {
+            Interval interval = new Interval(start, end);
+            Integer count = bookings.get(interval);
+            if (count == null) {
+                return;
+            }
+            if (count == 1) {
+                bookings.remove(interval);
+            } else {
+                bookings.put(interval, count - 1);
+            }
+            shift(start, end, -1);
+        }
+
+        void evictFinished(LocalDateTime now) {
+            Map.Entry<Interval, Integer> first;
+            while ((first = bookings.firstEntry()) != null && !first.getKey().end.isAfter(now)) {
+                bookings.pollFirstEntry();
+                shift(first.getKey().start, first.getKey().end, -first.getValue());
+            }
+        }
+
+        private int countAt(LocalDateTime time) {
+            Map.Entry<LocalDateTime, Integer> floor = coverage.floorEntry(time);
+            return floor == null ? 0 : floor.getValue();
+        }
+
+        private void shift(LocalDateTime start, LocalDateTime end, int delta) {
+            coverage.putIfAbsent(start, countAt(start));
+            coverage.putIfAbsent(end, countAt(end));
+            coverage.subMap(start, true, end, false).replaceAll((time, count) -> count + delta);
+            dropIfRedundant(start);
+            dropIfRedundant(end);
+        }
+
+        private void dropIfRedundant(LocalDateTime time) {
+            Map.Entry<LocalDateTime, Integer> previous = coverage.lowerEntry(time);
+            int before = previous == null ? 0 : previous.getValue();
+            if (coverage.get(time) == before) {
+                coverage.remove(time);
+            }
+        }
+    }
+
+    private static final class Interval {
+        static final Comparator<Interval> BY_END = Comparator.comparing((Interval interval) -> interval.end)
+                .thenComparing(interval -> interval.start);
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
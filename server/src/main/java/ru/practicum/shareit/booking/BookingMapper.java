@@ -1,18 +1,75 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
 public class BookingMapper {
 
+    /**
+     * Вещь копируется вместе с владельцем и запросом; они должны быть загружены заранее,
+     * иначе копирование выполнит по запросу к БД на каждую ленивую связь
+     */
     public static BookingDto toBookingDto(Booking booking) {
+        Item item = booking.getItem();
+        ItemRequest request = item.getRequest();
         return BookingDto.builder()
                 .id(booking.getId())
                 .start(booking.getStart())
                 .end(booking.getEnd())
-                .item(booking.getItem())
+                .item(Item.builder()
+                        .id(item.getId())
+                        .name(item.getName())
+                        .description(item.getDescription())
+                        .available(item.getAvailable())
+                        .owner(copyUser(item.getOwner()))
+                        .request(request == null ? null : ItemRequest.builder()
+                                .id(request.getId())
+                                .description(request.getDescription())
+                                .requestor(copyUser(request.getRequestor()))
+                                .created(request.getCreated())
+                                .build())
+                        .build())
                 .booker(booking.getBooker())
                 .status(booking.getStatus())
                 .build();
     }
 
+    public static BookingDto toBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(Item.builder()
+                        .id(booking.getItemId())
+                        .name(booking.getItemName())
+                        .description(booking.getItemDescription())
+                        .available(booking.getItemAvailable())
+                        .owner(User.builder()
+                                .id(booking.getOwnerId())
+                                .name(booking.getOwnerName())
+                                .email(booking.getOwnerEmail())
+                                .build())
+                        .request(booking.getRequestId() == null ? null : ItemRequest.builder()
+                                .id(booking.getRequestId())
+                                .description(booking.getRequestDescription())
+                                .requestor(User.builder()
+                                        .id(booking.getRequestorId())
+                                        .name(booking.getRequestorName())
+                                        .email(booking.getRequestorEmail())
+                                        .build())
+                                .created(booking.getRequestCreated())
+                                .build())
+                        .build())
+                .booker(User.builder()
+                        .id(booking.getBookerId())
+                        .name(booking.getBookerName())
+                        .email(booking.getBookerEmail())
+                        .build())
+                .status(booking.getStatus())
+                .build();
+    }
+
     public static Booking toBooking(BookingDto bookingDto) {
         return Booking.builder()
                 .id(bookingDto.getId())
@@ -30,4 +87,12 @@ public class BookingMapper {
                 .end(bookingDto.getEnd())
                 .build();
     }
+
+    private static User copyUser(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
 }
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Месячные секции таблицы bookings в PostgreSQL. Заранее создаёт секции на months-ahead месяцев вперёд,
+ * выносит в свои секции строки, попавшие в bookings_default, и удаляет опустевшие после архивации секции.
+ * Пока BookingTableConverter не перевёл прежнюю несекционированную bookings, обслуживать нечего
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partitions.enabled", havingValue = "true")
+public class BookingPartitionMaintainer {
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'bookings_p'yyyy_MM");
+    private static final String SELECT_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'public.bookings'::regclass";
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT relkind = 'p' FROM pg_class WHERE oid = 'public.bookings'::regclass";
+    private static final String SELECT_DEFAULT_MONTHS_SQL =
+            "SELECT DISTINCT date_trunc('month', start_date) AS month FROM bookings_default";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final Duration retention;
+    private final Duration detachLockTimeout;
+
+    public BookingPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${shareit.booking.partitions.months-ahead}") int monthsAhead,
+                                      @Value("${shareit.booking.archive.retention}") Duration retention,
+                                      @Value("${shareit.booking.partitions.detach-lock-timeout}")
+                                      Duration detachLockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retention = retention;
+        this.detachLockTimeout = detachLockTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.partitions.interval}")
+    public void maintain() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class))) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(SELECT_PARTITIONS_SQL, String.class));
+        Set<YearMonth> months = new TreeSet<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        months.addAll(jdbcTemplate.query(SELECT_DEFAULT_MONTHS_SQL,
+                (resultSet, rowNum) -> YearMonth.from(resultSet.getTimestamp("month").toLocalDateTime())));
+        for (YearMonth month : months) {
+            if (!existing.contains(PARTITION_NAME.format(month))) {
+                transactionTemplate.executeWithoutResult(status -> createPartition(month));
+            }
+        }
+        dropEmptyPartitions(existing, YearMonth.from(LocalDateTime.now().minus(retention)));
+    }
+
+    /**
+     * Создаёт секцию за месяц и переносит в неё строки этого месяца из bookings_default.
+     * Иначе ATTACH PARTITION отказался бы присоединять секцию, пока такие строки лежат в секции по умолчанию
+     */
+    private void createPartition(YearMonth month) {
+        String name = PARTITION_NAME.format(month);
+        String range = String.format("start_date >= '%s' AND start_date < '%s'", month.atDay(1), month.plusMonths(1).atDay(1));
+        // вставки в bookings_default ждут конца транзакции, иначе DELETE удалил бы строки, не попавшие в INSERT
+        jdbcTemplate.execute("LOCK TABLE bookings_default IN EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE bookings INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("INSERT INTO " + name + " SELECT * FROM bookings_default WHERE " + range);
+        jdbcTemplate.update("DELETE FROM bookings_default WHERE " + range);
+        jdbcTemplate.execute(String.format("ALTER TABLE bookings ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                name, month.atDay(1), month.plusMonths(1).atDay(1)));
+        log.info("Created booking partition {}, moved {} rows from bookings_default", name, moved);
+    }
+
+    /**
+     * Отсоединяет пустую секцию от bookings и удаляет её. DETACH блокирует сначала bookings, затем секцию,
+     * в том же порядке, что и запросы к bookings, поэтому взаимной блокировки с ними нет. Ожидание блокировки
+     * ограничено detach-lock-timeout: при занятой таблице секция будет удалена при следующем обслуживании.
+     * DETACH ... CONCURRENTLY не подходит: он запрещён, пока у bookings есть секция по умолчанию
+     */
+    private void dropIfEmpty(String name) {
+        if (!isEmpty(name)) {
+            return;
+        }
+        Boolean detached;
+        try {
+            detached = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = " + detachLockTimeout.toMillis());
+                jdbcTemplate.execute("ALTER TABLE bookings DETACH PARTITION " + name);
+                // строки, вставленные до DETACH, видны теперь; новые в отсоединённую секцию уже не попадут
+                if (!isEmpty(name)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not detach booking partition {}, will retry on next maintenance", name, e);
+            return;
+        }
+        if (Boolean.TRUE.equals(detached)) {
+            jdbcTemplate.execute("DROP TABLE " + name);
+            log.info("Dropped empty booking partition {}", name);
+        }
+    }
+
+    private boolean isEmpty(String name) {
+        return jdbcTemplate.queryForList("SELECT 1 FROM " + name + " LIMIT 1", Integer.class).isEmpty();
+    }
+
+    private void dropEmptyPartitions(Set<String> partitions, YearMonth archivedBefore) {
+        for (String name : partitions) {
+            YearMonth month;
+            try {
+                month = YearMonth.parse(name, PARTITION_NAME);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            if (month.isBefore(archivedBefore)) {
+                dropIfEmpty(name);
+            }
+        }
+    }
+}
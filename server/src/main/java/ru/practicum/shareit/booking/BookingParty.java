@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking;
+
+/**
+ * Сторона бронирования, от лица которой запрашивается выдача: арендатор или владелец вещи
+ */
+public enum BookingParty {
+    BOOKER,
+    OWNER
+}
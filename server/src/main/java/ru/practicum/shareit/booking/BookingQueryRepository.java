@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запросы по состояниям {@link BookingState}, собираемые через Criteria API.
+ * Все состояния вычисляются относительно одного переданного момента now.
+ * Условия по времени и курсор дополнены ограничением на start, чтобы PostgreSQL отсекал лишние
+ * месячные секции bookings.
+ */
+public interface BookingQueryRepository {
+
+    /**
+     * Бронирования пользователя в состоянии state, упорядоченные по (start DESC, id DESC).
+     * Если задан cursor, выдача продолжается после него, иначе пропускается offset строк
+     */
+    List<BookingView> findViews(BookingParty party, Long userId, BookingState state, LocalDateTime now,
+                                @Nullable BookingCursor cursor, long offset, int limit);
+
+    /**
+     * То же, что {@link #findViews}, но по архиву завершённых бронирований {@link ArchivedBooking}
+     */
+    List<BookingView> findArchivedViews(BookingParty party, Long userId, BookingState state, LocalDateTime now,
+                                        @Nullable BookingCursor cursor, long offset, int limit);
+
+    /**
+     * Число бронирований пользователя в каждом из состояний, одним агрегирующим запросом
+     */
+    Map<BookingState, Long> countByState(BookingParty party, Long userId, LocalDateTime now);
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findViews(BookingParty party, Long userId, BookingState state, LocalDateTime now,
+                                       @Nullable BookingCursor cursor, long offset, int limit) {
+        return findViews(Booking.class, party, userId, state, now, cursor, offset, limit);
+    }
+
+    @Override
+    public List<BookingView> findArchivedViews(BookingParty party, Long userId, BookingState state, LocalDateTime now,
+                                               @Nullable BookingCursor cursor, long offset, int limit) {
+        return findViews(ArchivedBooking.class, party, userId, state, now, cursor, offset, limit);
+    }
+
+    private List<BookingView> findViews(Class<?> entity, BookingParty party, Long userId, BookingState state,
+                                        LocalDateTime now, @Nullable BookingCursor cursor, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = cb.createQuery(BookingView.class);
+        Root<?> booking = query.from(entity);
+        Join<?, Item> item = booking.join("item");
+        Join<?, User> booker = booking.join("booker");
+        Join<Item, User> owner = item.join("owner");
+        Join<Item, ItemRequest> request = item.join("request", JoinType.LEFT);
+        Join<ItemRequest, User> requestor = request.join("requestor", JoinType.LEFT);
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(partyPredicate(cb, party, userId, booking, item));
+        where.add(statePredicate(cb, state, booking, now));
+        if (cursor != null) {
+            where.add(cb.lessThanOrEqualTo(start, cursor.getStart()));
+            where.add(cb.or(cb.lessThan(start, cursor.getStart()),
+                    cb.and(cb.equal(start, cursor.getStart()), cb.lessThan(id, cursor.getId()))));
+        }
+        query.select(cb.construct(BookingView.class,
+                        id, start, booking.get("end"), booking.get("status"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        owner.get("id"), owner.get("name"), owner.get("email"),
+                        request.get("id"), request.get("description"), request.get("created"),
+                        requestor.get("id"), requestor.get("name"), requestor.get("email"),
+                        booker.get("id"), booker.get("name"), booker.get("email")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Map<BookingState, Long> countByState(BookingParty party, Long userId, LocalDateTime now) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+
+        List<Selection<?>> counts = new ArrayList<>();
+        for (BookingState state : BookingState.values()) {
+            Expression<Integer> matches = cb.<Integer>selectCase()
+                    .when(statePredicate(cb, state, booking, now), 1)
+                    .otherwise(0);
+            counts.add(cb.sum(matches).alias(state.name()));
+        }
+        query.multiselect(counts).where(partyPredicate(cb, party, userId, booking, item));
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        Map<BookingState, Long> result = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            Number count = (Number) row.get(state.name());
+            result.put(state, count != null ? count.longValue() : 0L);
+        }
+        return result;
+    }
+
+    /**
+     * Условие сравнивает внешние ключи bookings.booker_id и items.owner_id, а не id присоединённых
+     * пользователей: иначе H2 не применяет к нему индексы bookings
+     */
+    private static Predicate partyPredicate(CriteriaBuilder cb, BookingParty party, Long userId,
+                                            Root<?> booking, Join<?, Item> item) {
+        return party == BookingParty.OWNER
+                ? cb.equal(item.get("owner").get("id"), userId)
+                : cb.equal(booking.get("booker").get("id"), userId);
+    }
+
+    private static Predicate statePredicate(CriteriaBuilder cb, BookingState state, Root<?> booking, LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        switch (state) {
+            case CURRENT:
+                return cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case PAST:
+                // start < end, поэтому условие на start ничего не меняет, но позволяет отсечь будущие секции
+                return cb.and(cb.lessThan(start, now), cb.lessThan(end, now));
+            case FUTURE:
+                return cb.greaterThan(start, now);
+            case WAITING:
+                return cb.equal(booking.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return cb.equal(booking.get("status"), BookingStatus.REJECTED);
+            default:
+                return cb.conjunction();
+        }
+    }
+}
@@ -1,45 +1,64 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends CrudRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long bookerId,
-                                                                                 LocalDateTime start,
-                                                                                 LocalDateTime end,
-                                                                                 Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(Long ownerId,
-                                                                                    LocalDateTime start,
-                                                                                    LocalDateTime end,
-                                                                                    Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(Long ownerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(Long ownerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    Optional<Booking> findFirst1ByItemIdAndStartLessThanAndStatusOrderByStartDesc(Long itemId, LocalDateTime end, BookingStatus status);
-
-    Optional<Booking> findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(Long itemId, LocalDateTime start, BookingStatus status);
-
-    Optional<Booking> findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(Long bookerId, Long itemId, LocalDateTime end, BookingStatus status);
-
-    List<Booking> findAllByItemOwnerIdOrderByStart(Long userId);
+public interface BookingRepository extends CrudRepository<Booking, Long>, BookingQueryRepository {
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @Query("select b from Booking b join fetch b.item where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> ids);
+
+    /**
+     * Как {@link #findAllWithItemByIdIn}, но с блокировкой строк до конца транзакции: прочитанные статусы
+     * не меняются параллельными подтверждениями. Порядок по id исключает взаимоблокировки пакетов
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b join fetch b.item where b.id in :ids order by b.id")
+    List<Booking> lockAllWithItemByIdIn(Collection<Long> ids);
+
+    /**
+     * Меняет статус только тех бронирований, которые всё ещё находятся в статусе {@code expected}.
+     * Контекст персистентности очищается, чтобы последующие чтения видели новый статус
+     *
+     * @return число изменённых строк
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = :status where b.id in :ids and b.status = :expected")
+    int updateStatus(Collection<Long> ids, BookingStatus expected, BookingStatus status);
+
+    /**
+     * Завершённое бронирование вещи пользователем. Условие на start избыточно, но отсекает будущие секции
+     */
+    Optional<Booking> findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(Long bookerId, Long itemId,
+                                                                                       LocalDateTime start, LocalDateTime end,
+                                                                                       BookingStatus status);
+
+    /**
+     * Последнее начавшееся и ближайшее будущее бронирование с заданным статусом для каждой из вещей:
+     * не больше двух строк на вещь. Из бронирований с одинаковым началом последним считается
+     * бронирование с большим id, ближайшим — с меньшим, как в {@link ru.practicum.shareit.item.ItemBookingSummary}
+     */
+    @Query("select b from Booking b where b.item.id in :itemIds and b.status = :status "
+            + "and (b.id = (select max(l.id) from Booking l "
+            + "where l.item = b.item and l.status = :status and l.start = (select max(lm.start) from Booking lm "
+            + "where lm.item = b.item and lm.status = :status and lm.start < :now)) "
+            + "or b.id = (select min(n.id) from Booking n "
+            + "where n.item = b.item and n.status = :status and n.start = (select min(nm.start) from Booking nm "
+            + "where nm.item = b.item and nm.status = :status and nm.start >= :now)))")
+    List<Booking> findLastAndNextByItemIdIn(Collection<Long> itemIds, BookingStatus status, LocalDateTime now);
+
+    List<Booking> findAllByStatusInAndEndIsAfter(Collection<BookingStatus> statuses, LocalDateTime end);
 
 }
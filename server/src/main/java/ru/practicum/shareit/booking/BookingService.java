@@ -1,16 +1,32 @@
 package ru.practicum.shareit.booking;
 
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     BookingDto save(BookingRequestDto bookingRequestDto, Long userId);
 
     BookingDto update(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingApprovalResultDto> updateAll(Long userId, BookingApprovalDto approval);
+
     BookingDto findById(Long bookingId, Long userId);
 
     List<BookingDto> findAllByState(BookingState state, Long userId, Long from, Long size);
 
+    List<BookingDto> findAllByState(BookingState state, Long userId, BookingCursor cursor, Long size);
+
     List<BookingDto> findAllByOwner(BookingState state, Long userId, Long from, Long size);
 
+    List<BookingDto> findAllByOwner(BookingState state, Long userId, BookingCursor cursor, Long size);
+
+    /**
+     * Бронирования из архива завершённых бронирований
+     */
+    List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, Long from, Long size);
+
+    List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, BookingCursor cursor, Long size);
+
+    Map<BookingState, Long> countByState(BookingParty party, Long userId);
+
 }
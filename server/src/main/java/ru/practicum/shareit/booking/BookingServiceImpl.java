@@ -1,23 +1,34 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.EntityNotExistException;
 import ru.practicum.shareit.exception.UnavailableError;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemBookingSummaryService;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
     private static final String INCORRECT_ITEM_OWNER = "User with 'id = %d is not owner of item with 'id = %d'";
@@ -26,21 +37,55 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
 
     @Override
+    @Transactional(noRollbackFor = {EntityNotExistException.class, UnavailableError.class, BadRequestException.class})
     public BookingDto save(BookingRequestDto bookingRequestDto, Long userId) {
+        Booking booking = prepare(bookingRequestDto, userId);
+        return BookingMapper.toBookingDto(persist(List.of(booking)).get(0));
+    }
+
+    /**
+     * Проверяет бронирование и резервирует его интервал в {@link BookingIntervalIndex}, но не сохраняет его:
+     * вставки всего пакета {@link BatchingBookingService} делает {@link #persist} после проверок.
+     * Пересечения проверяет только индекс, без обращения к БД (поэтому сервер работает в одном экземпляре);
+     * резерв в индексе снимается, если транзакция не зафиксируется.
+     * Ошибки проверки не помечают транзакцию на откат: до вставки ничего не записано,
+     * а в групповом сохранении откат задел бы весь пакет
+     */
+    @Transactional(propagation = Propagation.MANDATORY,
+            noRollbackFor = {EntityNotExistException.class, UnavailableError.class, BadRequestException.class})
+    public Booking prepare(BookingRequestDto bookingRequestDto, Long userId) {
         User user = UserMapper.toUser(userService.findById(userId));
-        Item item = itemRepository.findById(bookingRequestDto.getItemId()).orElseThrow(() -> new EntityNotExistException(String.format(ITEM_NOT_EXIST_MSG, bookingRequestDto.getItemId())));
+        Item item = itemRepository.findWithOwnerAndRequestById(bookingRequestDto.getItemId()).orElseThrow(() -> new EntityNotExistException(String.format(ITEM_NOT_EXIST_MSG, bookingRequestDto.getItemId())));
         Booking booking = BookingMapper.toBooking(bookingRequestDto);
         validateBooking(booking, item, userId);
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
-        Booking savedBooking = bookingRepository.save(booking);
-        return BookingMapper.toBookingDto(savedBooking);
+        bookingIntervalIndex.reserve(item.getId(), booking.getStart(), booking.getEnd());
+        releaseUnlessCommitted(item.getId(), booking.getStart(), booking.getEnd());
+        return booking;
+    }
+
+    /**
+     * Сохраняет проверенные {@link #prepare} бронирования. Вставки уходят в БД при коммите одним JDBC-пакетом.
+     * Если сохранение не удастся, резервы снимет откат транзакции
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Booking> persist(List<Booking> bookings) {
+        return bookings.stream()
+                .map(bookingRepository::save)
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Подтверждение сразу отражается в сводке бронирований вещи в той же транзакции
+     */
     @Override
+    @Transactional
     public BookingDto update(Long userId, Long bookingId, Boolean approved) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new EntityNotExistException(
@@ -54,10 +99,76 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException(String.format("Booking with id=%d already APPROVED or REJECTED", bookingId));
         }
         Booking updatedBooking = bookingRepository.save(booking);
+        if (updatedBooking.getStatus() == BookingStatus.REJECTED) {
+            releaseAfterCommit(updatedBooking.getItem().getId(), updatedBooking.getStart(), updatedBooking.getEnd());
+        } else {
+            itemBookingSummaryService.onApproved(List.of(updatedBooking), LocalDateTime.now());
+        }
         return BookingMapper.toBookingDto(updatedBooking);
     }
 
+    /**
+     * Подтверждает или отклоняет пакет бронирований: владелец и статус проверяются одним запросом,
+     * который блокирует строки, поэтому один UPDATE с условием status = WAITING меняет ровно те
+     * бронирования, что прочитаны в статусе WAITING. Изменённые параллельно видны как NOT_WAITING
+     */
     @Override
+    @Transactional
+    public List<BookingApprovalResultDto> updateAll(Long userId, BookingApprovalDto approval) {
+        BookingStatus status = approval.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Set<Long> bookingIds = new LinkedHashSet<>(approval.getBookingIds());
+        if (bookingIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Booking> bookings = bookingRepository.lockAllWithItemByIdIn(bookingIds).stream()
+                .filter(booking -> Objects.equals(booking.getItem().getOwner().getId(), userId))
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Set<Long> updatedIds = bookings.values().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .map(Booking::getId)
+                .collect(Collectors.toSet());
+        if (!updatedIds.isEmpty()) {
+            int updated = bookingRepository.updateStatus(updatedIds, BookingStatus.WAITING, status);
+            if (updated != updatedIds.size()) {
+                throw new IllegalStateException(String.format("Expected to update %d locked bookings, updated %d",
+                        updatedIds.size(), updated));
+            }
+        }
+        List<BookingApprovalResultDto> results = new ArrayList<>(bookingIds.size());
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.add(BookingApprovalResultDto.builder()
+                        .bookingId(bookingId)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_FOUND)
+                        .build());
+            } else if (updatedIds.contains(bookingId)) {
+                if (status == BookingStatus.REJECTED) {
+                    releaseAfterCommit(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+                }
+                results.add(BookingApprovalResultDto.builder()
+                        .bookingId(bookingId)
+                        .outcome(BookingApprovalResultDto.Outcome.UPDATED)
+                        .status(status)
+                        .build());
+            } else {
+                results.add(BookingApprovalResultDto.builder()
+                        .bookingId(bookingId)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_WAITING)
+                        .status(booking.getStatus())
+                        .build());
+            }
+        }
+        if (status == BookingStatus.APPROVED && !updatedIds.isEmpty()) {
+            itemBookingSummaryService.onApproved(updatedIds.stream()
+                    .map(bookings::get)
+                    .collect(Collectors.toList()), LocalDateTime.now());
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BookingDto findById(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new EntityNotExistException(String.format(BOOKING_NOT_EXIST_MSG, bookingId)));
@@ -72,68 +183,97 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> findAllByState(BookingState state, Long userId, Long from, Long size) {
-        userService.findById(userId);
-        List<Booking> bookings;
-        PageRequest page = PageRequest.of(Math.toIntExact(from / size),
-                Math.toIntExact(size));
-        switch (state) {
-            case CURRENT:
-                bookings = bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now(), page);
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, page);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, page);
-                break;
-            default:
-                bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page);
-        }
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return findPage(BookingParty.BOOKER, state, userId, null, from / size * size, size, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> findAllByState(BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return findPage(BookingParty.BOOKER, state, userId, cursor, 0, size, false);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> findAllByOwner(BookingState state, Long userId, Long from, Long size) {
+        return findPage(BookingParty.OWNER, state, userId, null, from / size * size, size, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> findAllByOwner(BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return findPage(BookingParty.OWNER, state, userId, cursor, 0, size, false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, Long from, Long size) {
+        return findPage(party, state, userId, null, from / size * size, size, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDto> findArchived(BookingParty party, BookingState state, Long userId, BookingCursor cursor, Long size) {
+        return findPage(party, state, userId, cursor, 0, size, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<BookingState, Long> countByState(BookingParty party, Long userId) {
         userService.findById(userId);
-        PageRequest page = PageRequest.of(Math.toIntExact(from / size),
-                Math.toIntExact(size));
-        List<Booking> bookings;
-        switch (state) {
-            case CURRENT:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId,
-                        LocalDateTime.now(),
-                        LocalDateTime.now(),
-                        page);
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, page);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, page);
-                break;
-            default:
-                bookings = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, page);
-        }
-        return bookings.stream()
+        return bookingRepository.countByState(party, userId, LocalDateTime.now());
+    }
+
+    /**
+     * Страница выдачи читается плоской проекцией {@link BookingView} без загрузки сущностей
+     */
+    private List<BookingDto> findPage(BookingParty party, BookingState state, Long userId,
+                                      BookingCursor cursor, long offset, Long size, boolean archived) {
+        userService.findById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        int limit = Math.toIntExact(size);
+        List<BookingView> views = archived
+                ? bookingRepository.findArchivedViews(party, userId, state, now, cursor, offset, limit)
+                : bookingRepository.findViews(party, userId, state, now, cursor, offset, limit);
+        return views.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Снимает резерв, если транзакция откатилась или её исход неизвестен (например, сбой коммита)
+     */
+    private void releaseUnlessCommitted(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        bookingIntervalIndex.release(itemId, start, end);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Освобождает интервал отклонённого бронирования только после коммита: при сбое коммита
+     * бронирование в БД остаётся блокирующим, и индекс не должен считать интервал свободным
+     */
+    private void releaseAfterCommit(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookingIntervalIndex.release(itemId, start, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookingIntervalIndex.release(itemId, start, end);
+            }
+        });
+    }
+
     private void validateBooking(Booking booking, Item item, Long bookerId) {
         if (Objects.equals(bookerId, item.getOwner().getId())) {
             throw new EntityNotExistException(String.format("User with id=%d is owner of Item with id=%d", bookerId, item.getId()));
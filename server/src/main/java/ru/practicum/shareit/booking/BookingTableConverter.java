@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Переводит на секционированную bookings базу, созданную до миграций (см. V2__create_bookings.sql).
+ * Порциями копирует строки прежней bookings в bookings_partitioned, запоминая в bookings_conversion,
+ * докуда дошёл, поэтому после перезапуска продолжает с того же места. Изменения, сделанные во время
+ * копирования, переносит триггер. Скопировав всё, короткой транзакцией удаляет прежнюю таблицу
+ * и переименовывает bookings_partitioned в bookings. В новой базе bookings_conversion нет,
+ * и перевод ничего не делает
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.conversion.enabled", havingValue = "true")
+public class BookingTableConverter {
+    private static final String COLUMNS = "booking_id, start_date, end_date, item_id, booker_id, status";
+    private static final String SELECT_BATCH_END_SQL = "SELECT MAX(booking_id) FROM "
+            + "(SELECT booking_id FROM bookings WHERE booking_id > ? ORDER BY booking_id LIMIT ?) batch";
+    // FOR SHARE: строку, изменяемую параллельно, копия прочитает уже после изменения
+    private static final String COPY_SQL = "INSERT INTO bookings_partitioned (" + COLUMNS + ") "
+            + "SELECT " + COLUMNS + " FROM bookings WHERE booking_id > ? AND booking_id <= ? FOR SHARE "
+            + "ON CONFLICT DO NOTHING";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration swapLockTimeout;
+
+    public BookingTableConverter(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${shareit.booking.conversion.batch-size}") int batchSize,
+                                 @Value("${shareit.booking.conversion.swap-lock-timeout}") Duration swapLockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.swapLockTimeout = swapLockTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.conversion.interval}")
+    public void convert() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('public.bookings_conversion') IS NOT NULL", Boolean.class))) {
+            return;
+        }
+        int batches = 0;
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> copyBatch()))) {
+            batches++;
+        }
+        if (batches > 0) {
+            log.info("Copied {} batches of bookings into bookings_partitioned", batches);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> swap());
+        } catch (DataAccessException e) {
+            log.warn("Could not swap bookings with bookings_partitioned, will retry on next run", e);
+            return;
+        }
+        log.info("Converted bookings to a partitioned table");
+    }
+
+    /**
+     * Копирует следующую порцию строк
+     *
+     * @return false, если копировать больше нечего
+     */
+    private boolean copyBatch() {
+        Long from = jdbcTemplate.queryForObject("SELECT copied_up_to FROM bookings_conversion FOR UPDATE", Long.class);
+        Long to = jdbcTemplate.queryForObject(SELECT_BATCH_END_SQL, Long.class, from, batchSize);
+        if (to == null) {
+            return false;
+        }
+        jdbcTemplate.update(COPY_SQL, from, to);
+        jdbcTemplate.update("UPDATE bookings_conversion SET copied_up_to = ?", to);
+        return true;
+    }
+
+    /**
+     * Удаляет прежнюю bookings вместе с триггером и ставит на её место bookings_partitioned.
+     * Меняется только каталог, но блокировка bookings ждёт конца текущих запросов к ней, поэтому её ожидание
+     * ограничено swap-lock-timeout: при занятой таблице замена повторится при следующем запуске
+     */
+    private void swap() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + swapLockTimeout.toMillis());
+        jdbcTemplate.execute("LOCK TABLE bookings IN ACCESS EXCLUSIVE MODE");
+        Long from = jdbcTemplate.queryForObject("SELECT copied_up_to FROM bookings_conversion", Long.class);
+        // строки, вставленные после последней порции, триггер уже скопировал; повтор ничего не изменит
+        jdbcTemplate.update(COPY_SQL, from, Long.MAX_VALUE);
+        jdbcTemplate.execute("DROP TABLE bookings");
+        jdbcTemplate.execute("DROP FUNCTION bookings_conversion_sync()");
+        jdbcTemplate.execute("DROP TABLE bookings_conversion");
+        jdbcTemplate.execute("ALTER TABLE bookings_partitioned RENAME TO bookings");
+        jdbcTemplate.execute("ALTER TABLE bookings_partitioned_default RENAME TO bookings_default");
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция бронирования: строится конструктором прямо в запросе, без загрузки сущностей
+ * {@link Booking}, {@link ru.practicum.shareit.item.Item} и {@link ru.practicum.shareit.user.User}.
+ * Владелец и запрос вещи нужны только ответам API: в выгрузку {@link BookingExportService} они не попадают
+ * и не читаются. Поля запроса пустые, если вещь добавлена не по запросу.
+ */
+@Value
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    Long itemId;
+    String itemName;
+    String itemDescription;
+    Boolean itemAvailable;
+    @JsonIgnore
+    Long ownerId;
+    @JsonIgnore
+    String ownerName;
+    @JsonIgnore
+    String ownerEmail;
+    @JsonIgnore
+    Long requestId;
+    @JsonIgnore
+    String requestDescription;
+    @JsonIgnore
+    LocalDateTime requestCreated;
+    @JsonIgnore
+    Long requestorId;
+    @JsonIgnore
+    String requestorName;
+    @JsonIgnore
+    String requestorEmail;
+    Long bookerId;
+    String bookerName;
+    String bookerEmail;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Подключает {@link PrimaryPinInterceptor} ко всем контроллерам, когда включена реплика.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty("shareit.datasource.replica.url")
+public class PrimaryPinConfig implements WebMvcConfigurer {
+    private final PrimaryPins primaryPins;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PrimaryPinInterceptor(primaryPins));
+    }
+}
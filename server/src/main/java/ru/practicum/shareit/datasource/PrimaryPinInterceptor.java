@@ -0,0 +1,60 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Привязывает пользователя к потоку запроса и при изменяющем запросе закрепляет его за основной БД
+ * на {@code shareit.datasource.primary-pin}. Пользователь берётся из {@code X-Sharer-User-Id},
+ * а для запросов {@code /users/{userId}} без заголовка — из пути.
+ * Закрепление ставится до обработки, чтобы следующее чтение не обогнало его, даже если ответ уже отправлен.
+ */
+@RequiredArgsConstructor
+public class PrimaryPinInterceptor implements HandlerInterceptor {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String USER_ID_PATH_VARIABLE = "userId";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private final PrimaryPins primaryPins;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long userId = userId(request);
+        PrimaryPins.bindUser(userId);
+        if (userId != null && !READ_METHODS.contains(request.getMethod())) {
+            primaryPins.pin(userId);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PrimaryPins.unbindUser();
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(SHARER_USER_ID_HEADER);
+        if (header != null) {
+            return parse(header);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return pathVariables != null && pathVariables.containsKey(USER_ID_PATH_VARIABLE)
+                ? parse(pathVariables.get(USER_ID_PATH_VARIABLE))
+                : null;
+    }
+
+    private static Long parse(String userId) {
+        try {
+            return Long.valueOf(userId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
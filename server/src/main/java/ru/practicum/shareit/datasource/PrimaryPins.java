@@ -0,0 +1,42 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно изменявшие данные. Их чтения идут на основную БД, пока реплика может отставать
+ * и не видеть их собственных изменений. Текущий пользователь привязывается к потоку на время HTTP-запроса.
+ */
+public class PrimaryPins {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    private final Cache<Long, Boolean> pinnedUsers;
+
+    public PrimaryPins(Duration pinDuration) {
+        pinnedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(pinDuration)
+                .build();
+    }
+
+    public static void bindUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void unbindUser() {
+        CURRENT_USER.remove();
+    }
+
+    public void pin(Long userId) {
+        pinnedUsers.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isPinned(Long userId) {
+        return pinnedUsers.getIfPresent(userId) != null;
+    }
+
+    public boolean isCurrentUserPinned() {
+        Long userId = CURRENT_USER.get();
+        return userId != null && isPinned(userId);
+    }
+}
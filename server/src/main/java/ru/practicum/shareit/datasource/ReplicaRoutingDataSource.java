@@ -0,0 +1,39 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Направляет транзакции {@code readOnly = true} на реплику, остальные запросы — на основную БД.
+ * Признак readOnly выставляется уже после открытия транзакции, поэтому источник нужно оборачивать
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: соединение берётся при первом запросе.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final PrimaryPins primaryPins;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, PrimaryPins primaryPins) {
+        this.primaryPins = primaryPins;
+        setTargetDataSources(Map.of(Role.PRIMARY, primary, Role.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Уходят ли запросы текущей транзакции на реплику
+     */
+    public static boolean isReplicaRead(PrimaryPins primaryPins) {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !primaryPins.isCurrentUserPinned();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isReplicaRead(primaryPins) ? Role.REPLICA : Role.PRIMARY;
+    }
+
+    private enum Role {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -70,4 +70,13 @@ public class CustomAdvice {
     public Map<String, String> handlePSQLException(PSQLException e) {
         return Map.of("error", e.getMessage());
     }
+
+    /**
+     * Обрабатывает переполнение очереди запросов
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleServiceOverloadedException(ServiceOverloadedException e) {
+        return Map.of("error", e.getMessage());
+    }
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.booking.Booking;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+/**
+ * Копия полей бронирования, которые нужны в карточке вещи
+ */
+@Getter
+@ToString
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingPointer {
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    @Column(name = "booker_id")
+    private Long bookerId;
+
+    public static BookingPointer of(Booking booking) {
+        return new BookingPointer(booking.getId(), booking.getStart(), booking.getEnd(), booking.getBooker().getId());
+    }
+}
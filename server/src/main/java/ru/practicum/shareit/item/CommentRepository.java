@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.Collection;
@@ -7,7 +9,14 @@ import java.util.List;
 
 public interface CommentRepository extends CrudRepository<Comment, Long> {
 
+    /**
+     * Условие по внешнему ключу comments.item_id, чтобы запрос использовал индекс ix_comments_item
+     */
+    @EntityGraph(attributePaths = "author")
+    @Query("select c from Comment c where c.item.id = :itemID")
     List<Comment> findAllByItemId(Long itemID);
 
-    List<Comment> findAllByItemIn(Collection<Item> item);
+    @EntityGraph(attributePaths = "author")
+    @Query("select c from Comment c where c.item.id in :itemIds")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
 }
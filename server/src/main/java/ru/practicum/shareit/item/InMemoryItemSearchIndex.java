@@ -0,0 +1,118 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс в памяти процесса для H2 и тестов.
+ * Совпадение в названии весит больше, чем в описании.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "memory")
+public class InMemoryItemSearchIndex implements ItemSearchIndex {
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private final ItemRepository itemRepository;
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Строит индекс по всем вещам при старте приложения
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Item> items = itemRepository.findAll();
+        items.forEach(this::index);
+        log.info("Item search index warmed up with {} items", items.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            ItemSearchIndex.terms(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            ItemSearchIndex.terms(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        }
+        lock.writeLock().lock();
+        try {
+            removePostings(item.getId());
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(item.getId(), weight));
+            if (!weights.isEmpty()) {
+                termsByItem.put(item.getId(), weights.keySet());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> terms = ItemSearchIndex.terms(text);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = rank(terms).entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .skip(from)
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Integer> rank(List<String> terms) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = new HashMap<>();
+                postings.subMap(term, true, term + Character.MAX_VALUE, true).values()
+                        .forEach(posting -> posting.forEach((itemId, weight) -> termScores.merge(itemId, weight, Integer::sum)));
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((itemId, score) -> score + termScores.get(itemId));
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removePostings(Long itemId) {
+        Set<String> terms = termsByItem.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(itemId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
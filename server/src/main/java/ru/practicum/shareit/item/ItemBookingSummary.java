@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.Booking;
+
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.Column;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Последнее начавшееся и ближайшее будущее подтверждённые бронирования вещи.
+ * Сводка обновляется при подтверждении бронирований и периодически сдвигается вперёд
+ * {@link ItemBookingSummaryService#rollForward}, поэтому карточка вещи читается без запроса к bookings.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_summary", schema = "public")
+public class ItemBookingSummary {
+    /**
+     * Порядок бронирований в сводке: по началу, при одинаковом начале — по id
+     */
+    static final Comparator<Booking> BY_START_AND_ID = Comparator.comparing(Booking::getStart)
+            .thenComparing(Booking::getId);
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start_date")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end_date")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id"))
+    })
+    private BookingPointer last;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start_date")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end_date")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id"))
+    })
+    private BookingPointer next;
+
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    /**
+     * Сводка верна, пока ближайшее бронирование ещё не началось: любое более позднее бронирование
+     * начнётся только после него
+     */
+    public boolean isActual(LocalDateTime now) {
+        return next == null || !next.getStart().isBefore(now);
+    }
+
+    /**
+     * Пересчитывает сводку по подтверждённым бронированиям вещи
+     */
+    public void recalculate(List<Booking> bookings, LocalDateTime now) {
+        last = bookings.stream()
+                .filter(booking -> booking.getStart().isBefore(now))
+                .max(BY_START_AND_ID)
+                .map(BookingPointer::of)
+                .orElse(null);
+        next = bookings.stream()
+                .filter(booking -> !booking.getStart().isBefore(now))
+                .min(BY_START_AND_ID)
+                .map(BookingPointer::of)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Периодически переносит начавшиеся бронирования из «ближайшего» в «последнее» в сводках вещей
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item-booking-summary.roll-forward.enabled", havingValue = "true")
+public class ItemBookingSummaryJob {
+    private final ItemBookingSummaryService summaryService;
+
+    @Scheduled(fixedDelayString = "${shareit.item-booking-summary.roll-forward.interval}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int updated;
+        do {
+            updated = summaryService.rollForward(now);
+            total += updated;
+        } while (updated > 0);
+        if (total > 0) {
+            log.debug("Rolled forward {} item booking summaries", total);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    /**
+     * Делает бронирование последним, если оно началось позже текущего последнего
+     * (при одинаковом начале — если его id больше).
+     * Условие проверяется в самом UPDATE, поэтому параллельные подтверждения не затирают друг друга
+     */
+    @Modifying
+    @Query("update ItemBookingSummary s set s.last.bookingId = :bookingId, s.last.start = :start, "
+            + "s.last.end = :end, s.last.bookerId = :bookerId "
+            + "where s.itemId = :itemId and (s.last.start is null or s.last.start < :start "
+            + "or s.last.start = :start and s.last.bookingId < :bookingId)")
+    int advanceLast(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Long bookerId);
+
+    /**
+     * Делает бронирование ближайшим, если оно начинается раньше текущего ближайшего
+     * (при одинаковом начале — если его id меньше)
+     */
+    @Modifying
+    @Query("update ItemBookingSummary s set s.next.bookingId = :bookingId, s.next.start = :start, "
+            + "s.next.end = :end, s.next.bookerId = :bookerId "
+            + "where s.itemId = :itemId and (s.next.start is null or s.next.start > :start "
+            + "or s.next.start = :start and s.next.bookingId > :bookingId)")
+    int advanceNext(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Long bookerId);
+
+    /**
+     * Сводки, ближайшее бронирование которых уже началось. Строки блокируются до конца транзакции,
+     * чтобы подтверждение, пришедшее во время пересчёта, применилось уже к новой сводке
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.next.start < :now order by s.itemId")
+    List<ItemBookingSummary> findStaleForUpdate(LocalDateTime now, Pageable pageable);
+
+    @Query("select i.id from Item i where not exists (select s from ItemBookingSummary s where s.itemId = i.id) "
+            + "order by i.id")
+    List<Long> findItemIdsWithoutSummary(Pageable pageable);
+}
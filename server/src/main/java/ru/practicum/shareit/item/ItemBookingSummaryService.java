@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Поддержка сводок {@link ItemBookingSummary}: заводит сводку для новой вещи, учитывает подтверждённые
+ * бронирования и сдвигает сводки, ближайшее бронирование которых уже началось
+ */
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class ItemBookingSummaryService {
+    private static final String INSERT_SUMMARY_SQL = "INSERT INTO item_booking_summary (item_id) VALUES (?)";
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    @Value("${shareit.item-booking-summary.batch-size}")
+    private int batchSize;
+
+    /**
+     * Заводит пустые сводки для только что созданных вещей в транзакции их создания
+     */
+    @Transactional
+    public void createEmpty(Collection<Long> itemIds) {
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY_SQL, itemIds, itemIds.size(),
+                (statement, itemId) -> statement.setLong(1, itemId));
+    }
+
+    /**
+     * Учитывает только что подтверждённые бронирования: для каждой вещи не больше двух условных UPDATE
+     */
+    @Transactional
+    public void onApproved(Collection<Booking> bookings, LocalDateTime now) {
+        Map<Long, List<Booking>> bookingsByItemId = bookings.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        bookingsByItemId.forEach((itemId, itemBookings) -> {
+            itemBookings.stream()
+                    .filter(booking -> booking.getStart().isBefore(now))
+                    .max(ItemBookingSummary.BY_START_AND_ID)
+                    .ifPresent(booking -> summaryRepository.advanceLast(itemId, booking.getId(),
+                            booking.getStart(), booking.getEnd(), booking.getBooker().getId()));
+            itemBookings.stream()
+                    .filter(booking -> !booking.getStart().isBefore(now))
+                    .min(ItemBookingSummary.BY_START_AND_ID)
+                    .ifPresent(booking -> summaryRepository.advanceNext(itemId, booking.getId(),
+                            booking.getStart(), booking.getEnd(), booking.getBooker().getId()));
+        });
+    }
+
+    /**
+     * Пересчитывает одну порцию сводок, ближайшее бронирование которых уже началось,
+     * и заводит сводки для вещей, у которых их ещё нет
+     *
+     * @return число пересчитанных сводок; 0 — все сводки актуальны на момент now
+     */
+    @Transactional
+    public int rollForward(LocalDateTime now) {
+        List<ItemBookingSummary> summaries = new ArrayList<>(
+                summaryRepository.findStaleForUpdate(now, PageRequest.of(0, batchSize)));
+        List<Long> missingIds = summaryRepository.findItemIdsWithoutSummary(PageRequest.of(0, batchSize));
+        if (!missingIds.isEmpty()) {
+            createEmpty(missingIds);
+            summaries.addAll(summaryRepository.findAllById(missingIds));
+        }
+        if (summaries.isEmpty()) {
+            return 0;
+        }
+        recalculate(summaries, now);
+        return summaries.size();
+    }
+
+    /**
+     * Пересчитывает сводки по таблице бронирований одним запросом. bookings_archive не читается:
+     * {@link ru.practicum.shareit.booking.BookingArchiver} не переносит бронирование, которое может быть последним
+     */
+    public void recalculate(Collection<ItemBookingSummary> summaries, LocalDateTime now) {
+        List<Long> itemIds = summaries.stream()
+                .map(ItemBookingSummary::getItemId)
+                .collect(Collectors.toList());
+        Map<Long, List<Booking>> bookingsByItemId = bookingRepository.findLastAndNextByItemIdIn(itemIds, BookingStatus.APPROVED, now)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        for (ItemBookingSummary summary : summaries) {
+            summary.recalculate(bookingsByItemId.getOrDefault(summary.getItemId(), Collections.emptyList()), now);
+        }
+    }
+}
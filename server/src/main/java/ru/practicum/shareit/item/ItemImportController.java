@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/items/import")
+public class ItemImportController {
+
+    private final ItemImportService itemImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Принимает JSON-массив или NDJSON и отвечает NDJSON с результатом по каждой записи.
+     * Ответ пишется по мере обработки пачек, поэтому ошибки до первой пачки (нет пользователя,
+     * тело не является массивом) возвращаются обычным JSON с кодом ошибки.
+     */
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        try (ResultWriter writer = new ResultWriter(response)) {
+            itemImportService.importItems(userId, ndjson, request.getInputStream(), writer::write);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ResultWriter implements AutoCloseable {
+        private final HttpServletResponse response;
+        private OutputStream out;
+
+        private ResultWriter(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        private void write(List<ItemImportResultDto> results) {
+            try {
+                OutputStream stream = open();
+                for (ItemImportResultDto result : results) {
+                    stream.write(objectMapper.writeValueAsBytes(result));
+                    stream.write('\n');
+                }
+                stream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private OutputStream open() throws IOException {
+            if (out == null) {
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                out = response.getOutputStream();
+            }
+            return out;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Результат импорта одной записи. line — номер строки, с которой начинается запись во входном потоке.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportResultDto {
+    Long line;
+    Status status;
+    Long id;
+    String error;
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+}
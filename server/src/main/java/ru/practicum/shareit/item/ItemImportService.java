@@ -0,0 +1,251 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserService;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт вещей из JSON-массива или NDJSON.
+ * Записи разбираются по одной, без буферизации всего тела, проверяются ограничениями {@link ItemDto}
+ * и вставляются пачками через JDBC batch. Результаты отдаются по пачкам в порядке записей.
+ */
+@Slf4j
+@Service
+@Timed("shareit.service")
+@RequiredArgsConstructor
+public class ItemImportService {
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO items (name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String REQUEST_NOT_EXIST_MSG = "ItemRequest with id=%d is not exist";
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserService userService;
+    private final ItemRequestRepository requestRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingSummaryService summaryService;
+    @Value("${shareit.item-import.batch-size}")
+    private int batchSize;
+
+    /**
+     * Импортирует вещи пользователя userId.
+     *
+     * @param ndjson  true — по объекту на строку, false — JSON-массив объектов
+     * @param results получает результаты очередной пачки; вызывается только после проверки владельца
+     */
+    public void importItems(Long userId, boolean ndjson, InputStream body,
+                            Consumer<List<ItemImportResultDto>> results) throws IOException {
+        User owner = UserMapper.toUser(userService.findById(userId));
+        List<ImportLine> batch = new ArrayList<>();
+        Consumer<ImportLine> collector = line -> {
+            batch.add(line);
+            if (batch.size() >= batchSize) {
+                results.accept(flush(owner, batch));
+                batch.clear();
+            }
+        };
+        try {
+            if (ndjson) {
+                readLines(body, collector);
+            } else {
+                readArray(body, collector);
+            }
+        } catch (JsonParseException e) {
+            collector.accept(ImportLine.invalid(e.getLocation().getLineNr(), "Malformed JSON: " + e.getOriginalMessage()));
+        }
+        results.accept(flush(owner, batch));
+    }
+
+    private void readLines(InputStream body, Consumer<ImportLine> collector) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNr = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            lineNr++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try (JsonParser parser = objectMapper.createParser(text)) {
+                parser.nextToken();
+                collector.accept(parse(lineNr, parser.readValueAsTree()));
+            } catch (JsonProcessingException e) {
+                collector.accept(ImportLine.invalid(lineNr, "Malformed JSON: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private void readArray(InputStream body, Consumer<ImportLine> collector) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Request body must be a JSON array of items");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of input: array is not closed");
+                }
+                long lineNr = parser.getTokenLocation().getLineNr();
+                collector.accept(parse(lineNr, parser.readValueAsTree()));
+            }
+        }
+    }
+
+    private ImportLine parse(long lineNr, JsonNode node) {
+        ItemDto item;
+        try {
+            item = objectMapper.treeToValue(node, ItemDto.class);
+        } catch (JsonProcessingException e) {
+            return ImportLine.invalid(lineNr, e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<ItemDto>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return ImportLine.invalid(lineNr, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return new ImportLine(lineNr, item);
+    }
+
+    private List<ItemImportResultDto> flush(User owner, List<ImportLine> batch) {
+        Set<Long> requestIds = batch.stream()
+                .filter(line -> line.item != null && line.item.getRequestId() != null)
+                .map(line -> line.item.getRequestId())
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = new HashMap<>();
+        if (!requestIds.isEmpty()) {
+            requestRepository.findAllById(requestIds).forEach(request -> requests.put(request.getId(), request));
+        }
+        List<ImportLine> accepted = new ArrayList<>();
+        for (ImportLine line : batch) {
+            if (line.item == null) {
+                continue;
+            }
+            Long requestId = line.item.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                line.reject(ItemImportResultDto.Status.INVALID, String.format(REQUEST_NOT_EXIST_MSG, requestId));
+            } else {
+                accepted.add(line);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            store(owner, accepted, requests);
+        }
+        return batch.stream().map(ImportLine::toResult).collect(Collectors.toList());
+    }
+
+    private void store(User owner, List<ImportLine> accepted, Map<Long, ItemRequest> requests) {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> created = insert(owner, accepted);
+                summaryService.createEmpty(created);
+                return created;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Item import batch of {} items for user {} failed", accepted.size(), owner.getId(), e);
+            accepted.forEach(line -> line.reject(ItemImportResultDto.Status.FAILED, "Batch insert failed"));
+            return;
+        }
+        for (int i = 0; i < accepted.size(); i++) {
+            ImportLine line = accepted.get(i);
+            line.id = Objects.requireNonNull(ids).get(i);
+            Item item = ItemMapper.toItem(line.item);
+            item.setId(line.id);
+            item.setOwner(owner);
+            item.setRequest(line.item.getRequestId() != null ? requests.get(line.item.getRequestId()) : null);
+            itemSearchIndex.index(item);
+        }
+    }
+
+    private List<Long> insert(User owner, List<ImportLine> lines) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM_SQL, new String[]{"item_id"})) {
+                for (ImportLine line : lines) {
+                    statement.setString(1, line.item.getName());
+                    statement.setString(2, line.item.getDescription());
+                    statement.setBoolean(3, line.item.getAvailable());
+                    statement.setLong(4, owner.getId());
+                    statement.setObject(5, line.item.getRequestId(), Types.BIGINT);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(lines.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private static final class ImportLine {
+        private final long lineNr;
+        private ItemDto item;
+        private Long id;
+        private ItemImportResultDto.Status status;
+        private String error;
+
+        private ImportLine(long lineNr, ItemDto item) {
+            this.lineNr = lineNr;
+            this.item = item;
+        }
+
+        private static ImportLine invalid(long lineNr, String error) {
+            ImportLine line = new ImportLine(lineNr, null);
+            line.status = ItemImportResultDto.Status.INVALID;
+            line.error = error;
+            return line;
+        }
+
+        private void reject(ItemImportResultDto.Status status, String error) {
+            this.item = null;
+            this.status = status;
+            this.error = error;
+        }
+
+        private ItemImportResultDto toResult() {
+            return ItemImportResultDto.builder()
+                    .line(lineNr)
+                    .status(id != null ? ItemImportResultDto.Status.CREATED : status)
+                    .id(id)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -1,18 +1,44 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-import javax.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByOwnerId(Long ownerId, Pageable pageable);
+    /**
+     * Вещь вместе с владельцем и запросом: всё это попадает в ответ на создание бронирования
+     */
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    Optional<Item> findWithOwnerAndRequestById(Long itemId);
 
-    List<Item> findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(@NotBlank String name, @NotBlank String description, Pageable pageable);
+    @Query("select i as item, s as summary from Item i "
+            + "left join ItemBookingSummary s on s.itemId = i.id "
+            + "where i.id = :itemId")
+    Optional<ItemWithSummary> findWithSummaryById(Long itemId);
 
+    @Query("select i as item, s as summary from Item i "
+            + "left join ItemBookingSummary s on s.itemId = i.id "
+            + "where i.owner.id = :ownerId order by i.id")
+    List<ItemWithSummary> findWithSummaryByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM items i "
+            + "WHERE i.is_available AND i.search_vector @@ to_tsquery('simple', :tsQuery) "
+            + "ORDER BY ts_rank(i.search_vector, to_tsquery('simple', :tsQuery)) DESC, i.item_id "
+            + "LIMIT :size OFFSET :from", nativeQuery = true)
+    List<Item> searchAvailableByTsQuery(String tsQuery, int from, int size);
+
+    /**
+     * Условие по внешнему ключу items.request_id: выведенный из имени метода запрос присоединял бы requests
+     * и фильтровал по её первичному ключу, не используя индекс ix_items_request
+     */
+    @Query("select i from Item i where i.request.id = :requestId")
     List<Item> findByRequestId(Long requestId);
 
+    @Query("select i from Item i where i.request.id in :requestIds")
     List<Item> findByRequestIdIn(List<Long> requestIds);
 
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск доступных вещей по названию и описанию.
+ */
+public interface ItemSearchIndex {
+
+    /**
+     * Добавляет вещь в индекс или обновляет её после изменения
+     */
+    void index(Item item);
+
+    /**
+     * Возвращает доступные вещи, содержащие все слова запроса (по префиксу), в порядке релевантности
+     */
+    List<Item> search(String text, int from, int size);
+
+    static List<String> terms(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
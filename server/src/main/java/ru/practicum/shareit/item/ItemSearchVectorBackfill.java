@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет items.search_vector вещей, созданных до триггера из V3__add_items_search_vector.sql.
+ * Проходит таблицу по item_id порциями, каждая в своей транзакции: блокировки строк держатся недолго.
+ * Уже заполненные строки пропускаются, поэтому после перезапуска проход просто повторяется.
+ * Пока проход не завершён, поиск не находит ещё не заполненные вещи
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "postgres", matchIfMissing = true)
+public class ItemSearchVectorBackfill {
+    private static final String SELECT_BATCH_END_SQL = "SELECT MAX(item_id) FROM "
+            + "(SELECT item_id FROM items WHERE item_id > ? ORDER BY item_id LIMIT ?) batch";
+    private static final String UPDATE_SQL = "UPDATE items SET search_vector = items_search_vector(name, description) "
+            + "WHERE item_id > ? AND item_id <= ? AND search_vector IS NULL";
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private long lastItemId;
+    private boolean done;
+
+    public ItemSearchVectorBackfill(JdbcTemplate jdbcTemplate,
+                                    @Value("${shareit.search.backfill.batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search.backfill.interval}")
+    public void backfill() {
+        if (done) {
+            return;
+        }
+        int total = 0;
+        Long batchEnd;
+        while ((batchEnd = jdbcTemplate.queryForObject(SELECT_BATCH_END_SQL, Long.class, lastItemId, batchSize)) != null) {
+            total += jdbcTemplate.update(UPDATE_SQL, lastItemId, batchEnd);
+            lastItemId = batchEnd;
+        }
+        done = true;
+        log.info("Backfilled search vectors of {} items", total);
+    }
+}
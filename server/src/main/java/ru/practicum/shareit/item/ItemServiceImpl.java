@@ -1,10 +1,11 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -21,6 +22,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("shareit.service")
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
@@ -28,9 +30,12 @@ public class ItemServiceImpl implements ItemService {
     private static final String INCORRECT_ITEM_OWNER = "User with 'id = %d is not owner of item with 'id = %d'";
     private final UserService userService;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository requestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingSummaryService summaryService;
 
     @Override
     @Transactional
@@ -44,6 +49,8 @@ public class ItemServiceImpl implements ItemService {
             addingItem.setRequest(itemRequest);
         }
         Item item = itemRepository.save(addingItem);
+        summaryService.createEmpty(List.of(item.getId()));
+        itemSearchIndex.index(item);
         return ItemMapper.toItemDto(item);
     }
 
@@ -66,118 +73,77 @@ public class ItemServiceImpl implements ItemService {
             curItem.setAvailable(patchItemDto.getAvailable());
         }
         Item patchedItem = itemRepository.save(curItem);
+        itemSearchIndex.index(patchedItem);
         return ItemMapper.toItemDto(patchedItem);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public ItemDto findById(Long itemId, Long userId) {
-        LocalDateTime now = LocalDateTime.now();
-        Item item = itemRepository.findById(itemId)
+        ItemWithSummary itemWithSummary = itemRepository.findWithSummaryById(itemId)
                 .orElseThrow(() -> new EntityNotExistException(String.format(ITEM_NOT_EXIST_MSG, itemId)));
+        Item item = itemWithSummary.getItem();
         User owner = UserMapper.toUser(userService.findById(userId));
-        Optional<Booking> lastBooking = Optional.empty();
-        Optional<Booking> nextBooking = Optional.empty();
         List<CommentDto> comments = commentRepository.findAllByItemId(itemId).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        if (Objects.equals(item.getOwner().getId(), userId)) {
-            lastBooking = bookingRepository.findFirst1ByItemIdAndStartLessThanAndStatusOrderByStartDesc(itemId, now, BookingStatus.APPROVED);
-            nextBooking = bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(itemId, now, BookingStatus.APPROVED);
-        }
-        return ItemDto.builder()
+        ItemDto.ItemDtoBuilder itemDto = ItemDto.builder()
                 .id(item.getId())
                 .owner(owner)
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBooking.map(booking -> ItemDto.BookingDto.builder()
-                        .id(booking.getId())
-                        .start(booking.getStart())
-                        .end(booking.getEnd())
-                        .bookerId(booking.getBooker().getId())
-                        .build()).orElse(null))
-                .nextBooking(nextBooking.map(booking -> ItemDto.BookingDto.builder()
-                        .id(booking.getId())
-                        .start(booking.getStart())
-                        .end(booking.getEnd())
-                        .bookerId(booking.getBooker().getId())
-                        .build()).orElse(null))
-                .comments(comments)
-                .build();
+                .comments(comments);
+        if (Objects.equals(item.getOwner().getId(), userId)) {
+            ItemBookingSummary summary = actualSummaries(List.of(itemWithSummary), LocalDateTime.now()).get(itemId);
+            itemDto.lastBooking(toBookingDto(summary.getLast()))
+                    .nextBooking(toBookingDto(summary.getNext()));
+        }
+        return itemDto.build();
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ItemDto> findAllByOwner(Long userId, Long from, Long size) {
-        LocalDateTime now = LocalDateTime.now();
         PageRequest page = PageRequest.of(Math.toIntExact(from / size),
                 Math.toIntExact(size));
-        List<Item> items = itemRepository.findByOwnerId(userId, page);
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerIdOrderByStart(userId);
-        Map<Item, List<Booking>> bookingGroupByItem = bookings.stream()
-                .collect(Collectors.groupingBy(Booking::getItem));
-        Map<Item, List<Comment>> commentsGroupByItem = commentRepository.findAllByItemIn(items).stream()
-                .collect(Collectors.groupingBy(Comment::getItem));
+        List<ItemWithSummary> items = itemRepository.findWithSummaryByOwnerId(userId, page);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream()
+                .map(itemWithSummary -> itemWithSummary.getItem().getId())
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = actualSummaries(items, LocalDateTime.now());
+        Map<Long, List<CommentDto>> commentsGroupByItemId = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
         List<ItemDto> itemDtos = new ArrayList<>();
-        for (Item item : items) {
-            Optional<Booking> lastBooking;
-            Optional<Booking> nextBooking;
-            if (bookingGroupByItem.get(item) != null) {
-                lastBooking = bookingGroupByItem.get(item).stream()
-                        .filter(book -> !book.getStart().isAfter(now) && book.getEnd().isBefore(now))
-                        .findFirst();
-                nextBooking = bookingGroupByItem.get(item).stream()
-                        .filter(book -> book.getStart().isAfter(now))
-                        .findFirst();
-            } else {
-                lastBooking = Optional.empty();
-                nextBooking = Optional.empty();
-            }
-            List<Comment> comments = commentsGroupByItem.get(item);
-            List<CommentDto> commentDtos;
-            if (comments == null) {
-                commentDtos = Collections.emptyList();
-            } else {
-                commentDtos = comments.stream()
-                        .map(CommentMapper::toCommentDto)
-                        .collect(Collectors.toList());
-            }
-
+        for (ItemWithSummary itemWithSummary : items) {
+            Item item = itemWithSummary.getItem();
+            ItemBookingSummary summary = summaries.get(item.getId());
             ItemDto itemDto = ItemDto.builder()
                     .id(item.getId())
                     .owner(item.getOwner())
                     .name(item.getName())
                     .description(item.getDescription())
                     .available(item.getAvailable())
-                    .lastBooking(lastBooking.map(booking -> ItemDto.BookingDto.builder()
-                            .id(booking.getId())
-                            .start(booking.getStart())
-                            .end(booking.getEnd())
-                            .bookerId(booking.getBooker().getId())
-                            .build()).orElse(null))
-                    .nextBooking(nextBooking.map(booking -> ItemDto.BookingDto.builder()
-                            .id(booking.getId())
-                            .start(booking.getStart())
-                            .end(booking.getEnd())
-                            .bookerId(booking.getBooker().getId())
-                            .build()).orElse(null))
-                    .comments(commentDtos)
+                    .lastBooking(toBookingDto(summary.getLast()))
+                    .nextBooking(toBookingDto(summary.getNext()))
+                    .comments(commentsGroupByItemId.getOrDefault(item.getId(), Collections.emptyList()))
                     .build();
             itemDtos.add(itemDto);
         }
-        return itemDtos.stream().sorted(Comparator.comparingLong(ItemDto::getId)).collect(Collectors.toList());
+        return itemDtos;
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public List<ItemDto> search(String text, Long from, Long size) {
-        PageRequest page = PageRequest.of(Math.toIntExact(from / size),
-                Math.toIntExact(size));
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(text, text, page)
+        return itemSearchIndex.search(text, Math.toIntExact(from / size * size), Math.toIntExact(size))
                 .stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
@@ -187,15 +153,54 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentDto commentDto) {
         LocalDateTime now = LocalDateTime.now();
-        Booking booking = bookingRepository.findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(userId, itemId, now, BookingStatus.APPROVED)
+        Comment comment = bookingRepository.findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(userId, itemId,
+                        now, now, BookingStatus.APPROVED)
+                .map(booking -> newComment(booking.getBooker(), booking.getItem(), commentDto))
+                .or(() -> archivedBookingRepository.findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(userId, itemId,
+                                now, BookingStatus.APPROVED)
+                        .map(booking -> newComment(booking.getBooker(), booking.getItem(), commentDto)))
                 .orElseThrow(() -> new BadRequestException(String.format("User id=%d did not book Item=%d", userId, itemId)));
-        Item item = booking.getItem();
-        User user = booking.getBooker();
-        Comment comment = Comment.builder()
-                .author(user)
+        return CommentMapper.toCommentDto(commentRepository.save(comment));
+    }
+
+    private static Comment newComment(User author, Item item, CommentDto commentDto) {
+        return Comment.builder()
+                .author(author)
                 .item(item)
                 .text(commentDto.getText())
                 .build();
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+    }
+
+    /**
+     * Сводки бронирований вещей на момент now. Отсутствующие и устаревшие сводки пересчитываются
+     * одним запросом к бронированиям без записи в БД: их обновит {@link ItemBookingSummaryJob}
+     */
+    private Map<Long, ItemBookingSummary> actualSummaries(List<ItemWithSummary> items, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        List<ItemBookingSummary> staleSummaries = new ArrayList<>();
+        for (ItemWithSummary itemWithSummary : items) {
+            ItemBookingSummary summary = itemWithSummary.getSummary();
+            if (summary == null || !summary.isActual(now)) {
+                summary = new ItemBookingSummary(itemWithSummary.getItem().getId());
+                staleSummaries.add(summary);
+            }
+            summaries.put(summary.getItemId(), summary);
+        }
+        if (!staleSummaries.isEmpty()) {
+            summaryService.recalculate(staleSummaries, now);
+        }
+        return summaries;
+    }
+
+    private static ItemDto.BookingDto toBookingDto(BookingPointer booking) {
+        if (booking == null) {
+            return null;
+        }
+        return ItemDto.BookingDto.builder()
+                .id(booking.getBookingId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .build();
     }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item;
+
+/**
+ * Вещь вместе со сводкой её бронирований, выбранная одним запросом.
+ * Сводки может не быть у вещей, созданных до её появления.
+ */
+public interface ItemWithSummary {
+    Item getItem();
+
+    ItemBookingSummary getSummary();
+}
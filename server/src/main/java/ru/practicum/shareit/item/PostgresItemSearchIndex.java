@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по tsvector-колонке items.search_vector с GIN-индексом.
+ * Колонку заполняет триггер БД (у прежних вещей — ItemSearchVectorBackfill), поэтому индексировать вещи
+ * при сохранении не нужно.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.backend", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemSearchIndex implements ItemSearchIndex {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public void index(Item item) {
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> terms = ItemSearchIndex.terms(text);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return itemRepository.searchAvailableByTsQuery(toPrefixTsQuery(terms), from, size);
+    }
+
+    static String toPrefixTsQuery(List<String> terms) {
+        return terms.stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -1,14 +1,20 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends CrudRepository<ItemRequest, Long> {
 
+    /**
+     * Условие по внешнему ключу requests.requestor_id, чтобы запрос использовал индекс ix_requests_requestor_created
+     */
+    @Query("select r from ItemRequest r where r.requestor.id = :requestorId order by r.created desc")
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
 
+    @Query("select r from ItemRequest r where r.requestor.id <> :requestorId")
     List<ItemRequest> findByRequestorIdNot(Long requestorId, Pageable pageable);
 
 }
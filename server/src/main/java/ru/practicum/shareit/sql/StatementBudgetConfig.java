@@ -0,0 +1,31 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Подключает {@link StatementBudgetInterceptor} ко всем контроллерам.
+ * В срезах {@code @WebMvcTest} реестра метрик нет, поэтому используется глобальный.
+ */
+@Configuration
+@EnableConfigurationProperties(StatementBudgetProperties.class)
+public class StatementBudgetConfig implements WebMvcConfigurer {
+    private final StatementBudgetProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StatementBudgetConfig(StatementBudgetProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StatementBudgetInterceptor(properties,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)));
+    }
+}
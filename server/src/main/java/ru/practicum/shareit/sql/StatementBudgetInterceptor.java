@@ -0,0 +1,69 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Считает SQL-запросы каждого HTTP-запроса, пишет их в метрику {@code shareit.sql.statements}
+ * и предупреждает в лог (не чаще {@code log-interval} на эндпоинт), если бюджет эндпоинта превышен.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatementBudgetInterceptor implements HandlerInterceptor {
+    public static final String STATEMENT_COUNT_ATTRIBUTE = StatementBudgetInterceptor.class.getName() + ".statementCount";
+    private static final String UNKNOWN_PATTERN = "UNKNOWN";
+    private final StatementBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> lastLoggedByEndpoint = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StatementCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StatementCounter.Statements statements = StatementCounter.stop();
+        int count = statements.getCount();
+        request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, count);
+
+        Object patternAttribute = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String pattern = patternAttribute != null ? patternAttribute.toString() : UNKNOWN_PATTERN;
+        String method = request.getMethod();
+        DistributionSummary.builder("shareit.sql.statements")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", pattern)
+                .register(meterRegistry)
+                .record(count);
+
+        int budget = properties.budgetFor(method, pattern);
+        if (count <= budget) {
+            return;
+        }
+        meterRegistry.counter("shareit.sql.budget.exceeded", "method", method, "uri", pattern).increment();
+        if (shouldLog(method + " " + pattern)) {
+            statements.mostFrequent().ifPresent(sql -> log.warn(
+                    "{} {} executed {} SQL statements (budget {}), most repeated {} times: {}",
+                    method, pattern, count, budget, sql.getValue(), sql.getKey()));
+        }
+    }
+
+    private boolean shouldLog(String endpoint) {
+        long now = System.currentTimeMillis();
+        AtomicLong lastLogged = lastLoggedByEndpoint.computeIfAbsent(endpoint, e -> new AtomicLong());
+        long previous = lastLogged.get();
+        return now - previous >= properties.getLogInterval().toMillis() && lastLogged.compareAndSet(previous, now);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Допустимое число SQL-запросов на один HTTP-запрос.
+ * {@code endpoints} задаёт бюджет для HTTP-метода и шаблона пути, остальным эндпоинтам достаётся {@code default-budget}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.statement-budget")
+public class StatementBudgetProperties {
+    private int defaultBudget = 10;
+    private Map<String, Map<String, Integer>> endpoints = new HashMap<>();
+    private Duration logInterval = Duration.ofMinutes(1);
+
+    public int budgetFor(String method, String pattern) {
+        return endpoints.getOrDefault(method, Map.of()).getOrDefault(pattern, defaultBudget);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Считает SQL-запросы, которые Hibernate выполняет в текущем потоке между {@link #start()} и {@link #stop()}.
+ * Подключается свойством {@code hibernate.session_factory.statement_inspector}.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Statements());
+    }
+
+    public static Statements stop() {
+        Statements statements = CURRENT.get();
+        CURRENT.remove();
+        return statements != null ? statements : new Statements();
+    }
+
+    /**
+     * Измерение текущего потока, чтобы продолжить его в другом потоке; null, если измерение не начато
+     */
+    public static Statements current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Продолжает в текущем потоке измерение, начатое в другом потоке ({@link #current()}),
+     * пока не будет вызван {@link #suspend()}
+     */
+    public static void resume(Statements statements) {
+        CURRENT.set(statements);
+    }
+
+    public static void suspend() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = CURRENT.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Запросы, выполненные за время одного измерения. Измерение может продолжаться в другом потоке,
+     * поэтому методы синхронизированы
+     */
+    public static class Statements {
+        private final Map<String, Integer> countBySql = new HashMap<>();
+        private int count;
+
+        private synchronized void add(String sql) {
+            count++;
+            countBySql.merge(sql, 1, Integer::sum);
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        /**
+         * Различные тексты выполненных запросов
+         */
+        public synchronized Set<String> getSql() {
+            return Set.copyOf(countBySql.keySet());
+        }
+
+        /**
+         * Чаще всего повторявшийся запрос — при N+1 это запрос, выполнявшийся для каждой строки
+         */
+        public synchronized Optional<Map.Entry<String, Integer>> mostFrequent() {
+            return countBySql.entrySet().stream()
+                    .max(Comparator.comparingInt(Map.Entry::getValue))
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Кэш пользователей: проверки существования пользователя в начале операций с вещами,
+ * бронированиями и запросами обслуживаются из памяти.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    public Cache<Long, UserDto> userCache(@Value("${shareit.user-cache.maximum-size}") long maximumSize,
+                                         @Value("${shareit.user-cache.expire-after-write}") Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public MeterBinder userCacheMetrics(Cache<Long, UserDto> userCache) {
+        return new CaffeineCacheMetrics<>(userCache, "users", Tags.empty());
+    }
+}
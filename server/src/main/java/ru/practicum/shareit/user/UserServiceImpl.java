@@ -1,20 +1,41 @@
 package ru.practicum.shareit.user;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.datasource.PrimaryPins;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
 import ru.practicum.shareit.exception.EntityNotExistException;
 
-import javax.transaction.Transactional;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Timed("shareit.service")
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final Cache<Long, UserDto> userCache;
+    private final TransactionTemplate primaryRead;
+    private final PrimaryPins primaryPins;
     private static final String USER_NOT_EXIST_MSG = "User with 'id = %d' is not exist";
 
+    public UserServiceImpl(UserRepository userRepository,
+                           Cache<Long, UserDto> userCache,
+                           PlatformTransactionManager transactionManager,
+                           Optional<PrimaryPins> primaryPins) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryPins = primaryPins.orElse(null);
+    }
+
     @Override
     @Transactional
     public UserDto save(UserDto userDto) {
@@ -35,17 +56,28 @@ public class UserServiceImpl implements UserService {
             curUser.setEmail(patchUser.getEmail());
         }
         User patchedUser = userRepository.save(curUser);
+        evict(userId);
         return UserMapper.toUserDto(patchedUser);
     }
 
     @Override
     public UserDto findById(Long userId) {
-        return userRepository.findById(userId)
-                .map(UserMapper::toUserDto)
-                .orElseThrow(() -> new EntityNotExistException(String.format(USER_NOT_EXIST_MSG, userId)));
+        UserDto userDto = userCache.getIfPresent(userId);
+        if (userDto != null) {
+            return userDto;
+        }
+        userDto = load(userId);
+        if (userDto == null) {
+            throw new EntityNotExistException(String.format(USER_NOT_EXIST_MSG, userId));
+        }
+        if (!isReplicaRead()) {
+            userCache.put(userId, userDto);
+        }
+        return userDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> findAll() {
         return ((Collection<User>) userRepository.findAll()).stream()
                 .map(UserMapper::toUserDto)
@@ -56,11 +88,44 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteById(Long userId) {
         userRepository.deleteById(userId);
+        evict(userId);
     }
 
     @Override
     public void checkIfUserExists(Long userId) {
-        if (!userRepository.existsById(userId))
-            throw new EntityNotExistException(String.format(USER_NOT_EXIST_MSG, userId));
+        findById(userId);
+    }
+
+    /**
+     * Вне транзакции читает в транзакции без readOnly, то есть с основной БД
+     */
+    private UserDto load(Long userId) {
+        return primaryRead.execute(status -> userRepository.findById(userId)
+                .map(UserMapper::toUserDto)
+                .orElse(null));
+    }
+
+    /**
+     * Прочитанное с реплики в кэш не кладётся: версия с отстающей реплики осталась бы там до вытеснения.
+     * Без реплики (нет {@link PrimaryPins}) все чтения идут с основной БД и кэшируются
+     */
+    private boolean isReplicaRead() {
+        return primaryPins != null && ReplicaRoutingDataSource.isReplicaRead(primaryPins);
+    }
+
+    /**
+     * Удаляет пользователя из кэша сразу и повторно после коммита,
+     * чтобы параллельное чтение не вернуло в кэш состояние до изменения
+     */
+    private void evict(Long userId) {
+        userCache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    userCache.invalidate(userId);
+                }
+            });
+        }
     }
 }
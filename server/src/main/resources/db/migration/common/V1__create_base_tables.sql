@@ -0,0 +1,64 @@
+CREATE TABLE IF NOT EXISTS users
+(
+    user_id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(500) NOT NULL,
+    email   VARCHAR(500) NOT NULL UNIQUE,
+    UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS items
+(
+    item_id      BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(1000) NOT NULL,
+    description  VARCHAR(1000) NOT NULL,
+    is_available BOOLEAN,
+    owner_id     BIGINT        NOT NULL,
+    request_id   BIGINT,
+    CONSTRAINT fk_items_to_users FOREIGN KEY (owner_id) REFERENCES users (user_id)
+);
+
+-- Таблица bookings создаётся в V2 отдельно для каждой СУБД (в PostgreSQL она секционирована).
+-- Шаг совпадает с allocationSize в Booking: Hibernate выдаёт id блоками и может вставлять бронирования пакетом
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS comments
+(
+    comment_id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    text       VARCHAR(5000),
+    item_id    BIGINT,
+    author_id  BIGINT,
+    CONSTRAINT fk_comments_to_items FOREIGN KEY (item_id) REFERENCES items (item_id),
+    CONSTRAINT fk_comments_to_users FOREIGN KEY (author_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS requests
+(
+    request_id   BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    description  VARCHAR(5000),
+    requestor_id BIGINT,
+    created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT fk_requests_to_users FOREIGN KEY (requestor_id) REFERENCES users (user_id)
+);
+
+-- Последнее и ближайшее подтверждённые бронирования вещи (ItemBookingSummary)
+CREATE TABLE IF NOT EXISTS item_booking_summary
+(
+    item_id         BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    last_start_date TIMESTAMP WITHOUT TIME ZONE,
+    last_end_date   TIMESTAMP WITHOUT TIME ZONE,
+    last_booker_id  BIGINT,
+    next_booking_id BIGINT,
+    next_start_date TIMESTAMP WITHOUT TIME ZONE,
+    next_end_date   TIMESTAMP WITHOUT TIME ZONE,
+    next_booker_id  BIGINT,
+    CONSTRAINT fk_item_booking_summary_to_items FOREIGN KEY (item_id) REFERENCES items (item_id) ON DELETE CASCADE
+);
+
+-- Индексы под методы ItemRepository, CommentRepository и ItemRequestRepository; индексы bookings — в V2
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, item_id);
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
+CREATE INDEX IF NOT EXISTS ix_requests_requestor_created ON requests (requestor_id, created DESC);
+CREATE INDEX IF NOT EXISTS ix_item_booking_summary_next_start ON item_booking_summary (next_start_date);
+CREATE INDEX IF NOT EXISTS ix_item_booking_summary_last_booking ON item_booking_summary (last_booking_id);
@@ -0,0 +1,6 @@
+-- В базе, созданной до Flyway по schema.sql (baseline-on-migrate), V2 оставляет прежнюю bookings
+-- с identity-ключом. booking_id переводится на bookings_seq, а последовательность сдвигается за наибольший id:
+-- следующий NEXT VALUE вернёт MAX + 50, и Hibernate выдаст блок id с MAX + 1. Строки не переписываются
+ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY;
+
+ALTER SEQUENCE bookings_seq RESTART WITH (SELECT COALESCE(MAX(booking_id) + 50, 1) FROM bookings);
@@ -0,0 +1,32 @@
+CREATE TABLE IF NOT EXISTS bookings
+(
+    booking_id BIGINT PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT,
+    booker_id  BIGINT,
+    status     VARCHAR(10),
+    CONSTRAINT fk_bookings_to_items FOREIGN KEY (item_id) REFERENCES items (item_id),
+    CONSTRAINT fk_bookings_to_users FOREIGN KEY (booker_id) REFERENCES users (user_id)
+);
+
+-- Архив завершённых бронирований (BookingArchiver)
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id BIGINT PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT,
+    booker_id  BIGINT,
+    status     VARCHAR(10),
+    CONSTRAINT fk_bookings_archive_to_items FOREIGN KEY (item_id) REFERENCES items (item_id),
+    CONSTRAINT fk_bookings_archive_to_users FOREIGN KEY (booker_id) REFERENCES users (user_id)
+);
+
+-- Индексы под методы BookingRepository и ArchivedBookingRepository
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_end ON bookings (end_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC);
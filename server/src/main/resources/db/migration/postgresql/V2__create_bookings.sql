@@ -0,0 +1,97 @@
+-- Бронирования секционированы по месяцам start_date. Месячные секции bookings_pYYYY_MM создаёт
+-- BookingPartitionMaintainer; строки за месяцы без секции попадают в bookings_default.
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования.
+-- Значение booking_id по умолчанию нужно для вставок в обход Hibernate.
+-- Таблица создаётся как bookings_partitioned и в новой базе сразу переименовывается в bookings
+CREATE TABLE IF NOT EXISTS bookings_partitioned
+(
+    booking_id BIGINT                      NOT NULL DEFAULT nextval('bookings_seq'),
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT,
+    booker_id  BIGINT,
+    status     VARCHAR(10),
+    CONSTRAINT pk_bookings PRIMARY KEY (booking_id, start_date),
+    CONSTRAINT fk_bookings_to_items FOREIGN KEY (item_id) REFERENCES items (item_id),
+    CONSTRAINT fk_bookings_to_users FOREIGN KEY (booker_id) REFERENCES users (user_id)
+) PARTITION BY RANGE (start_date);
+CREATE TABLE IF NOT EXISTS bookings_partitioned_default PARTITION OF bookings_partitioned DEFAULT;
+
+-- Индексы под методы BookingRepository; на секционированной таблице индекс создаётся в каждой секции
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings_partitioned (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings_partitioned (booker_id, status, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings_partitioned (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_end ON bookings_partitioned (end_date);
+-- Частичные индексы, которые не поддерживает H2
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_waiting ON bookings_partitioned (booker_id, start_date DESC) WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS ix_bookings_item_waiting ON bookings_partitioned (item_id, start_date DESC) WHERE status = 'WAITING';
+
+-- В базе, созданной до Flyway по schema.sql (baseline-on-migrate), уже есть несекционированная bookings
+-- с identity-ключом. Переписывать её при старте нельзя: миграция заняла бы время, пропорциональное числу
+-- бронирований, и держала бы блокировку таблицы. Здесь меняется только каталог:
+-- - booking_id получает значения из bookings_seq, а последовательность сдвигается за наибольший id,
+--   поэтому старые экземпляры, вставляющие без id, и Hibernate блоками по 50 не выдадут одинаковых id;
+-- - триггер повторяет в bookings_partitioned каждое изменение bookings;
+-- - bookings_conversion хранит, до какого booking_id строки уже скопированы.
+-- Строки копирует и таблицы меняет местами BookingTableConverter в фоне
+DO
+$$
+BEGIN
+    IF to_regclass('public.bookings') IS NULL THEN
+        ALTER TABLE bookings_partitioned RENAME TO bookings;
+        ALTER TABLE bookings_partitioned_default RENAME TO bookings_default;
+        RETURN;
+    END IF;
+    ALTER TABLE bookings ALTER COLUMN booking_id DROP IDENTITY IF EXISTS;
+    ALTER TABLE bookings ALTER COLUMN booking_id SET DEFAULT nextval('bookings_seq');
+    PERFORM setval('bookings_seq', MAX(booking_id)) FROM bookings HAVING COUNT(*) > 0;
+
+    CREATE TABLE IF NOT EXISTS bookings_conversion
+    (
+        copied_up_to BIGINT NOT NULL
+    );
+    INSERT INTO bookings_conversion (copied_up_to) SELECT 0 WHERE NOT EXISTS (SELECT 1 FROM bookings_conversion);
+
+    -- изменённая строка копируется заново: так она попадёт и в другую секцию, если изменилась start_date
+    CREATE OR REPLACE FUNCTION bookings_conversion_sync() RETURNS TRIGGER AS
+    $sync$
+    BEGIN
+        IF TG_OP IN ('UPDATE', 'DELETE') THEN
+            DELETE FROM bookings_partitioned WHERE booking_id = OLD.booking_id;
+        END IF;
+        IF TG_OP IN ('INSERT', 'UPDATE') THEN
+            INSERT INTO bookings_partitioned (booking_id, start_date, end_date, item_id, booker_id, status)
+            VALUES (NEW.booking_id, NEW.start_date, NEW.end_date, NEW.item_id, NEW.booker_id, NEW.status)
+            ON CONFLICT DO NOTHING;
+        END IF;
+        RETURN NULL;
+    END
+    $sync$ LANGUAGE plpgsql;
+
+    DROP TRIGGER IF EXISTS tr_bookings_conversion_sync ON bookings;
+    CREATE TRIGGER tr_bookings_conversion_sync
+        AFTER INSERT OR UPDATE OR DELETE
+        ON bookings
+        FOR EACH ROW
+    EXECUTE FUNCTION bookings_conversion_sync();
+END
+$$;
+
+-- Архив завершённых бронирований (BookingArchiver): строки только добавляются в порядке end_date,
+-- поэтому вместо B-дерева по end_date хватает BRIN-индекса в несколько страниц
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id BIGINT PRIMARY KEY,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT,
+    booker_id  BIGINT,
+    status     VARCHAR(10),
+    CONSTRAINT fk_bookings_archive_to_items FOREIGN KEY (item_id) REFERENCES items (item_id),
+    CONSTRAINT fk_bookings_archive_to_users FOREIGN KEY (booker_id) REFERENCES users (user_id)
+);
+
+-- Индексы под методы ArchivedBookingRepository
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_end ON bookings_archive USING BRIN (end_date);
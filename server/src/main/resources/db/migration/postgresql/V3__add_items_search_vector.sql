@@ -0,0 +1,25 @@
+-- Полнотекстовый поиск вещей (PostgresItemSearchIndex).
+-- Вычисляемый STORED-столбец переписал бы items под ACCESS EXCLUSIVE, поэтому столбец добавляется
+-- допускающим NULL и без DEFAULT: такое изменение затрагивает лишь каталог. Вставленные и изменённые
+-- строки заполняет триггер, существующие — ItemSearchVectorBackfill в фоне, а V4 строит индекс CONCURRENTLY
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector TSVECTOR;
+
+CREATE OR REPLACE FUNCTION items_search_vector(name VARCHAR, description VARCHAR) RETURNS TSVECTOR AS
+$$
+SELECT setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B')
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION items_search_vector_update() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.search_vector := items_search_vector(NEW.name, NEW.description);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS tr_items_search_vector ON items;
+CREATE TRIGGER tr_items_search_vector
+    BEFORE INSERT OR UPDATE OF name, description
+    ON items
+    FOR EACH ROW
+EXECUTE FUNCTION items_search_vector_update();
@@ -0,0 +1,5 @@
+-- Индексы на заполненных таблицах строятся CONCURRENTLY, без блокировки записи.
+-- Flyway выполняет такую миграцию вне транзакции, поэтому в файле не должно быть других команд.
+-- На секционированной bookings CONCURRENTLY не поддерживается: там индекс строится в каждой секции
+-- по отдельности и подключается к родительскому через ALTER INDEX ... ATTACH PARTITION
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_items_search_vector ON items USING GIN (search_vector);
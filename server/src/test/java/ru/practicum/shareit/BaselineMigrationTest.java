@@ -0,0 +1,87 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flyway принимает базу, созданную до миграций по прежнему schema.sql (baseline-on-migrate):
+ * прежняя bookings остаётся со всеми строками, а новые id выдаются из bookings_seq после них
+ */
+@SpringBootTest
+class BaselineMigrationTest {
+    private static final String URL = "jdbc:h2:mem:baseline-migration;DB_CLOSE_DELAY=-1";
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 10, 12, 0);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @DynamicPropertySource
+    static void baselineDatabase(DynamicPropertyRegistry registry) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "test", "test");
+        new ResourceDatabasePopulator(new ClassPathResource("db/baseline/schema.sql")).execute(dataSource);
+        JdbcTemplate baseline = new JdbcTemplate(dataSource);
+        baseline.update("INSERT INTO users (name, email) VALUES ('owner', 'baseline-owner@ya.ru')");
+        baseline.update("INSERT INTO users (name, email) VALUES ('booker', 'baseline-booker@ya.ru')");
+        baseline.update("INSERT INTO items (name, description, is_available, owner_id) VALUES ('drill', 'd', true, 1)");
+        for (int i = 0; i < 3; i++) {
+            baseline.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                    + "VALUES (?, ?, 1, 2, 'APPROVED')", START.plusDays(i), START.plusDays(i).plusHours(1));
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void migrate_whenBaselineDatabase_thenLegacyBookingsKept() {
+        assertEquals(List.of(1L, 2L, 3L), bookingIds());
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_IDENTITY FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'BOOKINGS' AND COLUMN_NAME = 'BOOKING_ID'", String.class));
+    }
+
+    @Test
+    void save_whenBaselineDatabaseMigrated_thenIdAfterLegacyBookings() {
+        Booking saved = bookingRepository.save(Booking.builder()
+                .start(START.plusDays(10))
+                .end(START.plusDays(11))
+                .item(itemRepository.findById(1L).orElseThrow())
+                .booker(userRepository.findById(2L).orElseThrow())
+                .status(BookingStatus.WAITING)
+                .build());
+        try {
+            assertTrue(saved.getId() > 3, "new booking id " + saved.getId() + " collides with legacy bookings");
+        } finally {
+            bookingRepository.delete(saved);
+        }
+    }
+
+    private List<Long> bookingIds() {
+        return StreamSupport.stream(bookingRepository.findAll().spliterator(), false)
+                .map(Booking::getId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,173 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingTableConverter;
+import ru.practicum.shareit.item.ItemSearchVectorBackfill;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Миграции PostgreSQL и фоновый перевод базы, созданной до Flyway: секционированная bookings,
+ * перенос прежних бронирований BookingTableConverter и заполнение items.search_vector
+ */
+@EnabledIfEnvironmentVariable(named = PostgresTestDatabase.URL_VARIABLE, matches = ".+")
+class PostgresMigrationTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 10, 12, 0);
+    private final PostgresTestDatabase database = new PostgresTestDatabase();
+    private final JdbcTemplate jdbcTemplate = database.jdbcTemplate();
+
+    @BeforeEach
+    void setUp() {
+        database.reset();
+    }
+
+    @Test
+    void migrate_whenNewDatabase_thenBookingsPartitioned() {
+        database.migrate();
+
+        assertTrue(database.isPartitioned("bookings"));
+        assertTrue(database.exists("bookings_default"));
+        assertFalse(database.exists("bookings_partitioned"));
+        assertFalse(database.exists("bookings_conversion"));
+        assertTrue(database.exists("ix_items_search_vector"));
+    }
+
+    @Test
+    void migrate_whenNewDatabase_thenSearchVectorFilledByTrigger() {
+        database.migrate();
+        insertUser("owner@ya.ru");
+
+        jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id) "
+                + "VALUES ('drill', 'cordless', true, 1)");
+
+        assertEquals(1, countItemsMatching("cordless"));
+    }
+
+    @Test
+    void migrate_whenBaselineDatabase_thenBookingsKeptUntilConverted() {
+        seedBaseline(3);
+
+        database.migrate();
+
+        assertFalse(database.isPartitioned("bookings"));
+        assertEquals(List.of(1L, 2L, 3L), bookingIds("bookings"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_partitioned", Integer.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT copied_up_to FROM bookings_conversion", Long.class));
+    }
+
+    @Test
+    void migrate_whenBaselineDatabase_thenNewBookingsGetIdsAfterLegacyAndAreMirrored() {
+        seedBaseline(3);
+        database.migrate();
+
+        insertBooking(START.plusDays(10));
+        jdbcTemplate.update("UPDATE bookings SET status = 'REJECTED' WHERE booking_id = 1");
+        jdbcTemplate.update("DELETE FROM bookings WHERE booking_id = 2");
+
+        List<Long> ids = bookingIds("bookings");
+        assertEquals(3, ids.size());
+        assertTrue(ids.get(2) > 3, "new booking id " + ids.get(2) + " collides with legacy bookings");
+        assertEquals(List.of(1L, ids.get(2)), bookingIds("bookings_partitioned"));
+        assertEquals("REJECTED", jdbcTemplate.queryForObject(
+                "SELECT status FROM bookings_partitioned WHERE booking_id = 1", String.class));
+    }
+
+    @Test
+    void convert_whenBaselineDatabase_thenBookingsReplacedWithPartitionedTable() {
+        seedBaseline(5);
+        database.migrate();
+        insertBooking(START.plusDays(10));
+        List<Long> before = bookingIds("bookings");
+
+        converter(2).convert();
+
+        assertTrue(database.isPartitioned("bookings"));
+        assertEquals(before, bookingIds("bookings"));
+        assertTrue(database.exists("bookings_default"));
+        assertFalse(database.exists("bookings_partitioned"));
+        assertFalse(database.exists("bookings_conversion"));
+        insertBooking(START.plusDays(20));
+        assertEquals(before.size() + 1, bookingIds("bookings").size());
+    }
+
+    @Test
+    void convert_whenInterruptedAfterBatch_thenResumesFromProgress() {
+        seedBaseline(5);
+        database.migrate();
+        // первая порция скопирована, затем процесс остановился
+        jdbcTemplate.update("INSERT INTO bookings_partitioned SELECT * FROM bookings WHERE booking_id <= 2");
+        jdbcTemplate.update("UPDATE bookings_conversion SET copied_up_to = 2");
+
+        converter(2).convert();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), bookingIds("bookings"));
+    }
+
+    @Test
+    void convert_whenNewDatabase_thenNothingChanged() {
+        database.migrate();
+
+        converter(2).convert();
+
+        assertTrue(database.isPartitioned("bookings"));
+    }
+
+    @Test
+    void backfill_whenBaselineItems_thenSearchVectorFilled() {
+        seedBaseline(0);
+        jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id) "
+                + "VALUES ('saw', 'circular', true, 1)");
+        database.migrate();
+        assertEquals(0, countItemsMatching("circular"));
+
+        new ItemSearchVectorBackfill(jdbcTemplate, 1).backfill();
+
+        assertEquals(1, countItemsMatching("circular"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items WHERE search_vector IS NULL", Integer.class));
+    }
+
+    private BookingTableConverter converter(int batchSize) {
+        return new BookingTableConverter(jdbcTemplate, database.transactionTemplate(), batchSize, Duration.ofSeconds(1));
+    }
+
+    private void seedBaseline(int bookings) {
+        database.createBaselineSchema();
+        insertUser("baseline-owner@ya.ru");
+        insertUser("baseline-booker@ya.ru");
+        jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id) "
+                + "VALUES ('drill', 'd', true, 1)");
+        for (int i = 0; i < bookings; i++) {
+            insertBooking(START.plusDays(i));
+        }
+    }
+
+    private void insertUser(String email) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', ?)", email);
+    }
+
+    private void insertBooking(LocalDateTime start) {
+        jdbcTemplate.update("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                        + "VALUES (?, ?, 1, 2, 'APPROVED')",
+                Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+    }
+
+    private List<Long> bookingIds(String table) {
+        return jdbcTemplate.queryForList("SELECT booking_id FROM " + table + " ORDER BY booking_id", Long.class);
+    }
+
+    private int countItemsMatching(String word) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items "
+                + "WHERE search_vector @@ to_tsquery('simple', ?)", Integer.class, word);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Отдельная база PostgreSQL для тестов миграций и обслуживания bookings, которые нельзя проверить на H2.
+ * Адрес задаёт переменная окружения SHAREIT_TEST_POSTGRES_URL (логин и пароль — SHAREIT_TEST_POSTGRES_USER
+ * и SHAREIT_TEST_POSTGRES_PASSWORD); без неё такие тесты пропускаются. Схема public пересоздаётся перед
+ * каждым тестом, поэтому база должна быть выделена под тесты
+ */
+public class PostgresTestDatabase {
+    public static final String URL_VARIABLE = "SHAREIT_TEST_POSTGRES_URL";
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getenv(URL_VARIABLE),
+            System.getenv().getOrDefault("SHAREIT_TEST_POSTGRES_USER", "shareit"),
+            System.getenv().getOrDefault("SHAREIT_TEST_POSTGRES_PASSWORD", "shareit"));
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return transactionTemplate;
+    }
+
+    public void reset() {
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA public");
+    }
+
+    /**
+     * Создаёт схему по прежнему schema.sql, как в базе, развёрнутой до Flyway
+     */
+    public void createBaselineSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/baseline/schema.sql")).execute(dataSource);
+    }
+
+    /**
+     * Выполняет миграции с теми же настройками Flyway, что и приложение
+     */
+    public void migrate() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .initSql("SET lock_timeout = '5s'")
+                .load()
+                .migrate();
+    }
+
+    public boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass(?)", Boolean.class, table));
+    }
+
+    public boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
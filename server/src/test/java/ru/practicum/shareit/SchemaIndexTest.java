@@ -0,0 +1,141 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingParty;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.sql.StatementCounter;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет, что горячие запросы репозиториев используют индексы, а не полный просмотр таблиц.
+ * Планы строятся для SQL, который Hibernate генерирует при вызове методов репозиториев
+ */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexTest {
+    private static final List<String> SEQUENTIAL_SCAN_MARKERS = List.of("tableScan", "Seq Scan");
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 1, 12, 0);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @BeforeEach
+    void setup() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if ("PostgreSQL".equals(product)) {
+            jdbcTemplate.execute("SET enable_seqscan = off");
+        }
+    }
+
+    Stream<Named<Runnable>> hotQueries() {
+        return Stream.of(
+                Named.of("bookings of booker", () -> bookingRepository.findViews(BookingParty.BOOKER, 1L,
+                        BookingState.ALL, NOW, null, 0, 10)),
+                Named.of("past bookings of booker", () -> bookingRepository.findViews(BookingParty.BOOKER, 1L,
+                        BookingState.PAST, NOW, null, 0, 10)),
+                Named.of("waiting bookings of booker", () -> bookingRepository.findViews(BookingParty.BOOKER, 1L,
+                        BookingState.WAITING, NOW, null, 0, 10)),
+                Named.of("bookings of owner", () -> bookingRepository.findViews(BookingParty.OWNER, 1L,
+                        BookingState.ALL, NOW, null, 0, 10)),
+                Named.of("waiting bookings of owner", () -> bookingRepository.findViews(BookingParty.OWNER, 1L,
+                        BookingState.WAITING, NOW, null, 0, 10)),
+                Named.of("finished booking of booker and item", () -> bookingRepository
+                        .findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(2L, 1L, NOW, NOW,
+                                BookingStatus.APPROVED)),
+                Named.of("blocking bookings", () -> bookingRepository.findAllByStatusInAndEndIsAfter(
+                        List.of(BookingStatus.WAITING, BookingStatus.APPROVED), NOW)),
+                Named.of("items of owner", () -> itemRepository.findWithSummaryByOwnerId(1L, PageRequest.of(0, 10))),
+                Named.of("items of requests", () -> itemRepository.findByRequestIdIn(List.of(1L, 2L, 3L))),
+                Named.of("comments of items", () -> commentRepository.findAllByItemIdIn(List.of(1L, 2L, 3L))),
+                Named.of("requests of requestor", () -> itemRequestRepository.findByRequestorIdOrderByCreatedDesc(1L))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("hotQueries")
+    void explain_whenHotQuery_thenIndexUsed(Runnable repositoryCall) {
+        Set<String> statements;
+        StatementCounter.start();
+        try {
+            repositoryCall.run();
+        } finally {
+            statements = StatementCounter.stop().getSql();
+        }
+
+        assertFalse(statements.isEmpty(), "Repository call executed no SQL");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            SEQUENTIAL_SCAN_MARKERS.forEach(marker -> assertFalse(plan.contains(marker),
+                    () -> "Sequential scan in plan of\n" + sql + "\n" + plan));
+        }
+    }
+
+    /**
+     * План запроса с параметрами: значения подбираются по типам параметров, поэтому план строится
+     * для того же текста запроса, что выполняет Hibernate
+     */
+    private String explain(String sql) {
+        List<String> plan = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                bindSample(statement, i, parameters.getParameterType(i));
+            }
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getString(1));
+        return String.join("\n", plan);
+    }
+
+    private void bindSample(PreparedStatement statement, int index, int type) throws SQLException {
+        switch (type) {
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                statement.setTimestamp(index, Timestamp.valueOf(NOW));
+                break;
+            case Types.VARCHAR:
+            case Types.CHAR:
+                statement.setString(index, BookingStatus.WAITING.name());
+                break;
+            case Types.BOOLEAN:
+                statement.setBoolean(index, true);
+                break;
+            default:
+                statement.setLong(index, 1L);
+        }
+    }
+}
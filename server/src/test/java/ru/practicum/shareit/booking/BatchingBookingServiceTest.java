@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import ru.practicum.shareit.exception.EntityNotExistException;
+import ru.practicum.shareit.exception.ServiceOverloadedException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingBookingServiceTest {
+    @Mock
+    private BookingServiceImpl delegate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private BatchingBookingService batchingBookingService;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final LocalDateTime end = start.plusDays(1);
+
+    private BookingBatchProperties properties;
+
+    @BeforeEach
+    void setup() {
+        properties = new BookingBatchProperties();
+        properties.setEnabled(true);
+        batchingBookingService = new BatchingBookingService(delegate, transactionManager, properties);
+    }
+
+    @Test
+    void write_whenOneBookingInvalid_thenOthersSavedInOneTransaction() throws Exception {
+        BatchingBookingService.PendingBooking first = pending(1L);
+        BatchingBookingService.PendingBooking invalid = pending(2L);
+        BatchingBookingService.PendingBooking third = pending(3L);
+        when(delegate.prepare(any(), any())).thenAnswer(invocation -> booking(invocation.getArgument(1)));
+        when(delegate.prepare(any(), eq(2L))).thenThrow(new EntityNotExistException("User with 'id = 2' is not exist"));
+        when(delegate.persist(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        batchingBookingService.write(List.of(first, invalid, third));
+
+        assertEquals(1L, first.result.get().getId());
+        assertEquals(3L, third.result.get().getId());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> invalid.result.get());
+        assertTrue(e.getCause() instanceof EntityNotExistException);
+        verify(delegate, times(1)).persist(argThat(bookings -> bookings.size() == 2));
+        verify(delegate, never()).save(any(), any());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void write_whenGroupCommitFails_thenSaveOneByOne() throws Exception {
+        BatchingBookingService.PendingBooking first = pending(1L);
+        BatchingBookingService.PendingBooking second = pending(2L);
+        when(delegate.prepare(any(), any())).thenAnswer(invocation -> booking(invocation.getArgument(1)));
+        when(delegate.persist(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(delegate.save(any(), any())).thenAnswer(invocation -> bookingDto(invocation.getArgument(1)));
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+
+        batchingBookingService.write(List.of(first, second));
+
+        assertEquals(1L, first.result.get().getId());
+        assertEquals(2L, second.result.get().getId());
+        verify(delegate, times(2)).prepare(any(), any());
+        verify(delegate, times(2)).save(any(), any());
+    }
+
+    @Test
+    void save_whenCalledConcurrently_thenEachCallerGetsOwnBooking() throws Exception {
+        when(delegate.prepare(any(), any())).thenAnswer(invocation -> booking(invocation.getArgument(1)));
+        when(delegate.persist(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        batchingBookingService.start();
+        try {
+            CompletableFuture<BookingDto> first = CompletableFuture.supplyAsync(() ->
+                    batchingBookingService.save(BookingRequestDto.builder().itemId(10L).start(start).end(end).build(), 1L));
+            CompletableFuture<BookingDto> second = CompletableFuture.supplyAsync(() ->
+                    batchingBookingService.save(BookingRequestDto.builder().itemId(10L).start(start).end(end).build(), 2L));
+
+            assertEquals(1L, first.get().getId());
+            assertEquals(2L, second.get().getId());
+        } finally {
+            batchingBookingService.stop();
+        }
+    }
+
+    @Test
+    void save_whenNotSavedInTime_thenServiceOverloadedException() throws Exception {
+        properties.setTimeout(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.prepare(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return booking(invocation.getArgument(1));
+        });
+        lenient().when(delegate.persist(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        try {
+            assertThrows(ServiceOverloadedException.class, () -> batchingBookingService.save(request(), 1L));
+        } finally {
+            release.countDown();
+            batchingBookingService.stop();
+        }
+    }
+
+    @Test
+    void save_whenWriterThreadDied_thenWriterRestarted() throws Exception {
+        properties.setTimeout(Duration.ofMillis(200));
+        when(delegate.prepare(any(), any()))
+                .thenThrow(new AssertionError("writer crashed"))
+                .thenAnswer(invocation -> booking(invocation.getArgument(1)));
+        when(delegate.persist(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        try {
+            assertThrows(ServiceOverloadedException.class, () -> batchingBookingService.save(request(), 1L));
+
+            assertEquals(2L, batchingBookingService.save(request(), 2L).getId());
+        } finally {
+            batchingBookingService.stop();
+        }
+    }
+
+    private BookingRequestDto request() {
+        return BookingRequestDto.builder().itemId(10L).start(start).end(end).build();
+    }
+
+    private BatchingBookingService.PendingBooking pending(Long userId) {
+        return new BatchingBookingService.PendingBooking(
+                BookingRequestDto.builder().itemId(10L).start(start).end(end).build(), userId, null);
+    }
+
+    private Booking booking(Long userId) {
+        return Booking.builder()
+                .id(userId)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(10L).owner(User.builder().id(100L).build()).build())
+                .booker(User.builder().id(userId).build())
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+
+    private BookingDto bookingDto(Long userId) {
+        return BookingDto.builder()
+                .id(userId)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(10L).build())
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.BookingPointer;
+import ru.practicum.shareit.item.CommentDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemBookingSummary;
+import ru.practicum.shareit.item.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class BookingArchiverTest {
+    @Autowired
+    private BookingArchiver bookingArchiver;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingExportService bookingExportService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private User booker;
+    private Item drill;
+    private Booking approved;
+    private Booking rejected;
+    private Booking waiting;
+    private Booking last;
+    private Booking drillLast;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("archive-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("archive-booker@ya.ru").build());
+        drill = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        Item saw = itemRepository.save(Item.builder().name("saw").description("s").available(true).owner(owner).build());
+        approved = save(drill, now.minusDays(400), BookingStatus.APPROVED);
+        rejected = save(drill, now.minusDays(390), BookingStatus.REJECTED);
+        waiting = save(drill, now.minusDays(380), BookingStatus.WAITING);
+        drillLast = save(drill, now.minusDays(370), BookingStatus.APPROVED);
+        last = save(saw, now.minusDays(400), BookingStatus.APPROVED);
+        ItemBookingSummary summary = new ItemBookingSummary(saw.getId());
+        summary.setLast(BookingPointer.of(last));
+        summaryRepository.save(summary);
+        entityManager.flush();
+    }
+
+    @Test
+    void archive_thenMovesFinishedBookingsExceptWaitingAndLast() {
+        assertEquals(2, bookingArchiver.archive(now.minusDays(365)));
+        assertEquals(0, bookingArchiver.archive(now.minusDays(365)));
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(approved.getId()).isEmpty());
+        assertTrue(bookingRepository.findById(rejected.getId()).isEmpty());
+        assertEquals(List.of(rejected.getId(), approved.getId()),
+                ids(bookingService.findArchived(BookingParty.BOOKER, BookingState.ALL, booker.getId(), 0L, 10L)));
+        assertEquals(List.of(rejected.getId()),
+                ids(bookingService.findArchived(BookingParty.OWNER, BookingState.REJECTED, owner.getId(), 0L, 10L)));
+        assertEquals(List.of(drillLast.getId(), waiting.getId(), last.getId()),
+                ids(bookingService.findAllByState(BookingState.ALL, booker.getId(), 0L, 10L)));
+    }
+
+    @Test
+    void archive_whenLastStartedBookingHasNoSummary_thenKept() {
+        Item hammer = itemRepository.save(Item.builder().name("hammer").description("h").available(true)
+                .owner(owner).build());
+        Booking only = save(hammer, now.minusDays(400), BookingStatus.APPROVED);
+        entityManager.flush();
+
+        bookingArchiver.archive(now.minusDays(365));
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(only.getId()).isPresent());
+        assertTrue(bookingRepository.findById(drillLast.getId()).isPresent());
+    }
+
+    @Test
+    void archive_whenCutoffBeforeBookings_thenNothingMoved() {
+        assertEquals(0, bookingArchiver.archive(now.minusDays(500)));
+        assertEquals(List.of(), bookingService.findArchived(BookingParty.BOOKER, BookingState.ALL, booker.getId(), 0L, 10L));
+    }
+
+    @Test
+    void addComment_whenBookingArchived_thenCommentSaved() {
+        bookingArchiver.archive(now.minusDays(365));
+        entityManager.clear();
+
+        CommentDto comment = itemService.addComment(booker.getId(), drill.getId(),
+                CommentDto.builder().text("good drill").build());
+
+        assertEquals("good drill", comment.getText());
+        assertEquals(booker.getName(), comment.getAuthorName());
+    }
+
+    @Test
+    void exportByOwner_thenIncludesArchivedBookings() {
+        bookingArchiver.archive(now.minusDays(365));
+        List<Long> exported = new ArrayList<>();
+
+        bookingExportService.exportByOwner(owner.getId(), new BookingExportWriter() {
+            @Override
+            public void write(BookingView booking) {
+                exported.add(booking.getId());
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        assertEquals(List.of(drillLast.getId(), waiting.getId(), rejected.getId(), last.getId(), approved.getId()),
+                exported);
+    }
+
+    private Booking save(Item item, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder().item(item).booker(booker).status(status)
+                .start(start).end(start.plusDays(1)).build());
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+    }
+}
@@ -14,11 +14,14 @@ import ru.practicum.shareit.user.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -181,4 +184,92 @@ class BookingControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
 
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void findAllByState_whenCursorAndFullPage_thenNextCursorHeader() {
+        BookingCursor cursor = new BookingCursor(end, 5L);
+        when(bookingService.findAllByState(BookingState.ALL, bookerId, cursor, 1L)).thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings")
+                        .param("cursor", cursor.encode())
+                        .param("size", "1")
+                        .header(SHARER_USER_ID_HEADER, bookerId)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.after(bookingDto).encode()))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+        verify(bookingService, never()).findAllByState(any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void findAllByOwner_whenArchived_thenReadsArchive() {
+        when(bookingService.findArchived(BookingParty.OWNER, BookingState.PAST, ownerId, 0L, 10L))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "PAST")
+                        .param("archived", "true")
+                        .header(SHARER_USER_ID_HEADER, ownerId)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+        verify(bookingService, never()).findAllByOwner(any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @SneakyThrows
+    @Test
+    void findAllByOwner_whenInvalidCursor_thenBadRequest() {
+
+        mvc.perform(get("/bookings/owner")
+                        .param("cursor", "broken")
+                        .header(SHARER_USER_ID_HEADER, ownerId)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void updateAll_whenInputValid_thenListOfResults() {
+        BookingApprovalDto approval = BookingApprovalDto.builder().bookingIds(List.of(bookingId, 2L)).approved(true).build();
+        List<BookingApprovalResultDto> results = List.of(
+                BookingApprovalResultDto.builder().bookingId(bookingId)
+                        .outcome(BookingApprovalResultDto.Outcome.UPDATED).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(2L)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_FOUND).build());
+        when(bookingService.updateAll(eq(ownerId), any())).thenReturn(results);
+
+        mvc.perform(patch("/bookings")
+                        .header(SHARER_USER_ID_HEADER, ownerId)
+                        .content(mapper.writeValueAsString(approval))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(results)));
+        verify(bookingService).updateAll(ownerId, approval);
+    }
+
+    @SneakyThrows
+    @Test
+    void ownerSummary_thenCountsPerState() {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            counts.put(state, (long) state.ordinal());
+        }
+        when(bookingService.countByState(BookingParty.OWNER, ownerId)).thenReturn(counts);
+
+        mvc.perform(get("/bookings/owner/summary")
+                        .header(SHARER_USER_ID_HEADER, ownerId)
+                        .accept(MediaType.APPLICATION_JSON))
+
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"ALL\":0,\"CURRENT\":1,\"PAST\":2,\"FUTURE\":3,\"WAITING\":4,\"REJECTED\":5}"));
+        verify(bookingService, never()).countByState(eq(BookingParty.BOOKER), anyLong());
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingCursorTest {
+
+    @Test
+    void decode_whenEncodedCursor_thenSameCursor() {
+        BookingCursor cursor = BookingCursor.after(BookingDto.builder()
+                .id(42L)
+                .start(LocalDateTime.of(2023, 5, 1, 10, 15, 30, 123_000_000))
+                .build());
+
+        BookingCursor decoded = BookingCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_whenInvalidString_thenIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode("%%%"));
+    }
+}
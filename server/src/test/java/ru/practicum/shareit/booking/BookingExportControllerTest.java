@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.EntityNotExistException;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BookingExportController.class)
+class BookingExportControllerTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    @MockBean
+    private BookingExportService bookingExportService;
+    @Autowired
+    private MockMvc mvc;
+    private BookingView booking;
+
+    @BeforeEach
+    void setup() {
+        booking = new BookingView(5L, LocalDateTime.of(2030, 1, 1, 10, 0), LocalDateTime.of(2030, 1, 2, 10, 0),
+                BookingStatus.APPROVED, 2L, "drill", "cordless, 18V", true,
+                null, null, null, null, null, null, null, null, null, 3L, "booker", "booker@ya.ru");
+    }
+
+    @Test
+    void exportByOwner_whenNdjson_thenWritesBookingPerLine() throws Exception {
+        doAnswer(invocation -> {
+            BookingExportWriter writer = invocation.getArgument(1);
+            writer.write(booking);
+            writer.write(booking);
+            return null;
+        }).when(bookingExportService).exportByOwner(eq(1L), any());
+
+        String line = "{\"id\":5,\"start\":\"2030-01-01T10:00:00\",\"end\":\"2030-01-02T10:00:00\",\"status\":\"APPROVED\","
+                + "\"itemId\":2,\"itemName\":\"drill\",\"itemDescription\":\"cordless, 18V\",\"itemAvailable\":true,"
+                + "\"bookerId\":3,\"bookerName\":\"booker\",\"bookerEmail\":\"booker@ya.ru\"}\n";
+        mvc.perform(get("/bookings/owner/export")
+                        .header(SHARER_USER_ID_HEADER, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"bookings.ndjson\""))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void exportByOwner_whenCsv_thenWritesHeaderAndEscapedRows() throws Exception {
+        doAnswer(invocation -> {
+            BookingExportWriter writer = invocation.getArgument(1);
+            writer.write(booking);
+            return null;
+        }).when(bookingExportService).exportByOwner(eq(1L), any());
+
+        mvc.perform(get("/bookings/owner/export")
+                        .header(SHARER_USER_ID_HEADER, 1L)
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(content().string("id,start,end,status,itemId,itemName,itemDescription,itemAvailable,"
+                        + "bookerId,bookerName,bookerEmail\n"
+                        + "5,2030-01-01T10:00:00,2030-01-02T10:00:00,APPROVED,2,drill,\"cordless, 18V\",true,"
+                        + "3,booker,booker@ya.ru\n"));
+    }
+
+    @Test
+    void exportByOwner_whenNoBookings_thenWritesCsvHeaderOnly() throws Exception {
+        mvc.perform(get("/bookings/owner/export")
+                        .header(SHARER_USER_ID_HEADER, 1L)
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id,start,end,status,itemId,itemName,itemDescription,itemAvailable,"
+                        + "bookerId,bookerName,bookerEmail\n"));
+    }
+
+    @Test
+    void exportByOwner_whenUnknownFormat_thenBadRequest() throws Exception {
+        mvc.perform(get("/bookings/owner/export")
+                        .header(SHARER_USER_ID_HEADER, 1L)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingExportService);
+    }
+
+    @Test
+    void exportByOwner_whenUserNotExist_thenNotFound() throws Exception {
+        doThrow(new EntityNotExistException("User not found"))
+                .when(bookingExportService).exportByOwner(eq(1L), any());
+
+        mvc.perform(get("/bookings/owner/export")
+                        .header(SHARER_USER_ID_HEADER, 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EntityNotExistException;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "shareit.booking.export.fetch-size=2")
+@Transactional
+class BookingExportServiceTest {
+    @Autowired
+    private BookingExportService bookingExportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
+    private User owner;
+    private User booker;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        owner = userRepository.save(User.builder().name("owner").email("export-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("export-booker@ya.ru").build());
+        User stranger = userRepository.save(User.builder().name("stranger").email("export-stranger@ya.ru").build());
+        Item drill = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        Item saw = itemRepository.save(Item.builder().name("saw").description("s").available(true).owner(owner).build());
+        Item foreign = itemRepository.save(Item.builder().name("ladder").description("l").available(true).owner(stranger).build());
+        for (int i = 0; i < 5; i++) {
+            bookings.add(bookingRepository.save(Booking.builder().item(i % 2 == 0 ? drill : saw).booker(booker)
+                    .status(BookingStatus.APPROVED).start(now.minusDays(i + 1L)).end(now.minusDays(i)).build()));
+        }
+        bookingRepository.save(Booking.builder().item(foreign).booker(booker).status(BookingStatus.WAITING)
+                .start(now.plusDays(1)).end(now.plusDays(2)).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void exportByOwner_thenWritesAllOwnerBookingsLatestFirst() {
+        List<BookingView> exported = new ArrayList<>();
+
+        bookingExportService.exportByOwner(owner.getId(), new CollectingWriter(exported));
+
+        assertEquals(bookings.stream().map(Booking::getId).collect(Collectors.toList()),
+                exported.stream().map(BookingView::getId).collect(Collectors.toList()));
+        BookingView first = exported.get(0);
+        assertEquals(bookings.get(0).getStart(), first.getStart());
+        assertEquals("drill", first.getItemName());
+        assertEquals(booker.getId(), first.getBookerId());
+        assertEquals("export-booker@ya.ru", first.getBookerEmail());
+        assertEquals(BookingStatus.APPROVED, first.getStatus());
+    }
+
+    @Test
+    void exportByOwner_whenUserNotExist_thenThrows() {
+        List<BookingView> exported = new ArrayList<>();
+
+        assertThrows(EntityNotExistException.class,
+                () -> bookingExportService.exportByOwner(-1L, new CollectingWriter(exported)));
+        assertEquals(List.of(), exported);
+    }
+
+    private static final class CollectingWriter implements BookingExportWriter {
+        private final List<BookingView> exported;
+
+        private CollectingWriter(List<BookingView> exported) {
+            this.exported = exported;
+        }
+
+        @Override
+        public void write(BookingView booking) {
+            exported.add(booking);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.UnavailableError;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.sql.StatementCounter;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Групповое сохранение на H2: несколько запросов попадают в одну транзакцию пакета, а их вставки —
+ * в один JDBC-пакет; после неудачного коммита пакета бронирования сохраняются по одному.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.booking.BookingGroupCommitTest$BookingInsertRecorder",
+        "shareit.booking.batch.enabled=true",
+        "shareit.booking.batch.window=2s",
+        "shareit.booking.batch.max-size=" + BookingGroupCommitTest.REQUESTS
+})
+class BookingGroupCommitTest {
+    static final int REQUESTS = 3;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RecordingTransactionManager transactionManager;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    private final List<User> bookers = new ArrayList<>();
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("group-owner@ya.ru").build());
+        for (int i = 0; i < REQUESTS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker" + i).email("group-booker" + i + "@ya.ru").build()));
+        }
+        item = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        transactionManager.reset();
+        BookingInsertRecorder.INSERTS.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookingRepository.deleteAll(itemBookings());
+        itemRepository.delete(item);
+        userRepository.deleteAll(bookers);
+        userRepository.delete(owner);
+    }
+
+    @Test
+    void save_whenRequestsArriveTogether_thenOneGroupCommit() {
+        List<StatementCounter.Statements> statements = new ArrayList<>();
+
+        List<BookingDto> saved = saveConcurrently(statements);
+
+        assertEquals(REQUESTS, saved.stream().map(BookingDto::getId).distinct().count());
+        assertEquals(REQUESTS, itemBookings().size());
+        assertEquals(List.of(BatchingBookingService.GROUP_COMMIT_TRANSACTION), transactionManager.committed);
+        assertEquals(1, BookingInsertRecorder.INSERTS.size(), "bookings were not inserted in one JDBC batch");
+        statements.forEach(counted -> assertTrue(counted.getCount() > 0));
+    }
+
+    @Test
+    void save_whenGroupCommitFails_thenSavedOneByOne() {
+        transactionManager.failGroupCommit.set(true);
+
+        List<BookingDto> saved = saveConcurrently(new ArrayList<>());
+
+        assertFalse(transactionManager.failGroupCommit.get());
+        assertFalse(transactionManager.committed.contains(BatchingBookingService.GROUP_COMMIT_TRANSACTION));
+        assertEquals(REQUESTS, saved.stream().map(BookingDto::getId).distinct().count());
+        assertEquals(saved.stream().map(BookingDto::getId).sorted().collect(Collectors.toList()),
+                itemBookings().stream().map(Booking::getId).sorted().collect(Collectors.toList()));
+        BookingRequestDto overlapping = request(0);
+        assertThrows(UnavailableError.class, () -> bookingService.save(overlapping, bookers.get(1).getId()));
+    }
+
+    /**
+     * Каждый запрос бронирует свой день, чтобы интервалы не пересекались
+     */
+    private List<BookingDto> saveConcurrently(List<StatementCounter.Statements> statements) {
+        CountDownLatch ready = new CountDownLatch(REQUESTS);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<CompletableFuture<BookingDto>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            BookingRequestDto request = request(i);
+            Long bookerId = bookers.get(i).getId();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                StatementCounter.start();
+                try {
+                    ready.countDown();
+                    ready.await();
+                    return bookingService.save(request, bookerId);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } finally {
+                    synchronized (statements) {
+                        statements.add(StatementCounter.stop());
+                    }
+                }
+            }, executor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BookingRequestDto request(int day) {
+        return BookingRequestDto.builder()
+                .itemId(item.getId())
+                .start(start.plusDays(day))
+                .end(start.plusDays(day).plusHours(12))
+                .build();
+    }
+
+    private List<Booking> itemBookings() {
+        return StreamSupport.stream(bookingRepository.findAll().spliterator(), false)
+                .filter(booking -> Objects.equals(booking.getItem().getId(), item.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Запоминает подготовленные вставки в bookings. Hibernate готовит запрос один раз на JDBC-пакет,
+     * поэтому при пакетной вставке запись одна, а при вставках по одной — по записи на бронирование
+     */
+    public static class BookingInsertRecorder extends StatementCounter {
+        private static final Pattern BOOKING_INSERT = Pattern.compile("^insert into (\\w+\\.)?bookings\\b");
+        static final List<String> INSERTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (BOOKING_INSERT.matcher(sql).find()) {
+                INSERTS.add(sql);
+            }
+            return super.inspect(sql);
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingTransactionManagerConfig {
+        @Bean
+        static BeanPostProcessor recordingTransactionManager() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof PlatformTransactionManager && !(bean instanceof RecordingTransactionManager)
+                            ? new RecordingTransactionManager((PlatformTransactionManager) bean) : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Запоминает закоммиченные транзакции пакета и по флагу проваливает коммит одной из них.
+     * Методы {@code AbstractPlatformTransactionManager} финальные, поэтому обёртка вместо шпиона.
+     */
+    static class RecordingTransactionManager implements PlatformTransactionManager {
+        private final PlatformTransactionManager delegate;
+        final List<String> committed = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failGroupCommit = new AtomicBoolean();
+
+        RecordingTransactionManager(PlatformTransactionManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return delegate.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            if (status.isNewTransaction() && BatchingBookingService.GROUP_COMMIT_TRANSACTION.equals(name)
+                    && failGroupCommit.compareAndSet(true, false)) {
+                delegate.rollback(status);
+                throw new TransactionSystemException("group commit failed");
+            }
+            delegate.commit(status);
+            if (status.isNewTransaction() && BatchingBookingService.GROUP_COMMIT_TRANSACTION.equals(name)) {
+                committed.add(name);
+            }
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            delegate.rollback(status);
+        }
+
+        void reset() {
+            committed.clear();
+            failGroupCommit.set(false);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.UnavailableError;
+import ru.practicum.shareit.item.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private final Long itemId = 1L;
+
+    @BeforeEach
+    void setup() {
+        start = LocalDateTime.now().plusDays(1);
+        end = start.plusDays(2);
+    }
+
+    @Test
+    void reserve_whenIntervalsOverlap_thenUnavailableError() {
+
+        bookingIntervalIndex.reserve(itemId, start, end);
+
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(itemId, start.minusDays(1), start.plusHours(1)));
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(itemId, start.plusHours(1), end.minusHours(1)));
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(itemId, end.minusHours(1), end.plusDays(1)));
+
+    }
+
+    @Test
+    void reserve_whenIntervalsAdjacentOrOtherItem_thenReserved() {
+
+        bookingIntervalIndex.reserve(itemId, start, end);
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, end, end.plusDays(1)));
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, start.minusDays(1), start));
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(2L, start, end));
+
+    }
+
+    @Test
+    void release_whenIntervalReleased_thenCanBeReservedAgain() {
+
+        bookingIntervalIndex.reserve(itemId, start, end);
+        bookingIntervalIndex.release(itemId, start, end);
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, start, end));
+
+    }
+
+    @Test
+    void warmUp_whenActiveBookingsExist_thenIntervalsReserved() {
+        Booking booking = Booking.builder()
+                .id(1L)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(itemId).build())
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(List.of(booking));
+
+        bookingIntervalIndex.warmUp();
+
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(itemId, start.plusHours(1), end.plusHours(1)));
+
+    }
+
+    @Test
+    void release_whenSameIntervalReservedTwice_thenStillBlockedUntilBothReleased() {
+        Booking first = booking(1L, start, end);
+        Booking second = booking(2L, start, end);
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(List.of(first, second));
+        bookingIntervalIndex.warmUp();
+
+        bookingIntervalIndex.release(itemId, start, end);
+
+        assertThrows(UnavailableError.class, () -> bookingIntervalIndex.reserve(itemId, start, end));
+        bookingIntervalIndex.release(itemId, start, end);
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, start, end));
+
+    }
+
+    @Test
+    void release_whenIntervalNotReserved_thenNothingReleased() {
+
+        bookingIntervalIndex.reserve(itemId, start, end);
+        bookingIntervalIndex.release(itemId, start, end.plusHours(1));
+
+        assertThrows(UnavailableError.class, () -> bookingIntervalIndex.reserve(itemId, start, end));
+
+    }
+
+    @Test
+    void release_whenLoadedBookingsOverlap_thenOnlyReleasedBookingFreed() {
+        Booking longBooking = booking(1L, start, end.plusDays(2));
+        Booking nested = booking(2L, start.plusHours(1), start.plusDays(1));
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(List.of(longBooking, nested));
+        bookingIntervalIndex.warmUp();
+
+        bookingIntervalIndex.release(itemId, longBooking.getStart(), longBooking.getEnd());
+
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(itemId, start.plusHours(2), start.plusHours(3)));
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, start.plusDays(1), end.plusDays(2)));
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, start, start.plusHours(1)));
+
+    }
+
+    @Test
+    void reserve_whenBookingFinished_thenEvicted() {
+        Booking finishing = booking(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusNanos(1));
+        when(bookingRepository.findAllByStatusInAndEndIsAfter(any(), any())).thenReturn(List.of(finishing));
+        bookingIntervalIndex.warmUp();
+
+        assertDoesNotThrow(() -> bookingIntervalIndex.reserve(itemId, LocalDateTime.now(), end));
+
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(itemId).build())
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+}
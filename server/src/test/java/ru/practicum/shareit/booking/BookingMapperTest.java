@@ -88,6 +88,21 @@ class BookingMapperTest {
         BookingDto mappedBooking = BookingMapper.toBookingDto(booking);
 
         assertEquals(mappedBooking.toString(), bookingDto.toString());
+        assertEquals(booking.getItem().getOwner().toString(), mappedBooking.getItem().getOwner().toString());
+
+    }
+
+    @Test
+    void toBookingDtoFromBookingView() {
+        BookingView bookingView = new BookingView(booking.getId(), start, end, BookingStatus.WAITING,
+                booking.getItem().getId(), booking.getItem().getName(), booking.getItem().getDescription(), true,
+                1L, "ownerName", "ownerEmail", null, null, null, null, null, null,
+                booking.getBooker().getId(), booking.getBooker().getName(), booking.getBooker().getEmail());
+
+        BookingDto mappedBooking = BookingMapper.toBookingDto(bookingView);
+
+        assertEquals(mappedBooking.toString(), bookingDto.toString());
+        assertEquals(booking.getItem().getOwner().toString(), mappedBooking.getItem().getOwner().toString());
 
     }
 
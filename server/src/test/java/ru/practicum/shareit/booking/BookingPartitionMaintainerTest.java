@@ -0,0 +1,98 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.PostgresTestDatabase;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnabledIfEnvironmentVariable(named = PostgresTestDatabase.URL_VARIABLE, matches = ".+")
+class BookingPartitionMaintainerTest {
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'bookings_p'yyyy_MM");
+    private final PostgresTestDatabase database = new PostgresTestDatabase();
+    private final JdbcTemplate jdbcTemplate = database.jdbcTemplate();
+    private final BookingPartitionMaintainer maintainer = new BookingPartitionMaintainer(jdbcTemplate,
+            database.transactionTemplate(), 1, Duration.ofDays(365), Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        database.reset();
+        database.migrate();
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('booker', 'partition-booker@ya.ru')");
+        jdbcTemplate.update("INSERT INTO items (name, description, is_available, owner_id) VALUES ('drill', 'd', true, 1)");
+    }
+
+    @Test
+    void maintain_thenCreatesPartitionsAhead() {
+        maintainer.maintain();
+
+        YearMonth current = YearMonth.now();
+        assertTrue(database.exists(PARTITION_NAME.format(current)));
+        assertTrue(database.exists(PARTITION_NAME.format(current.plusMonths(1))));
+        assertFalse(database.exists(PARTITION_NAME.format(current.plusMonths(2))));
+    }
+
+    @Test
+    void maintain_whenRowsInDefaultPartition_thenMovedToMonthPartition() {
+        LocalDateTime start = LocalDateTime.now().plusYears(2);
+        long first = insertBooking(start);
+        long second = insertBooking(start.plusHours(2));
+        assertEquals(List.of(first, second), bookingIds("bookings_default"));
+
+        maintainer.maintain();
+
+        assertEquals(List.of(), bookingIds("bookings_default"));
+        assertEquals(List.of(first, second), bookingIds(PARTITION_NAME.format(YearMonth.from(start))));
+        assertEquals(List.of(first, second), bookingIds("bookings"));
+    }
+
+    @Test
+    void maintain_whenArchivedPartitionEmpty_thenDropped() {
+        LocalDateTime archived = LocalDateTime.now().minusYears(2);
+        long booking = insertBooking(archived);
+        insertBooking(archived.minusMonths(1));
+        maintainer.maintain();
+        String emptied = PARTITION_NAME.format(YearMonth.from(archived));
+        String kept = PARTITION_NAME.format(YearMonth.from(archived.minusMonths(1)));
+        assertTrue(database.exists(emptied));
+        jdbcTemplate.update("DELETE FROM bookings WHERE booking_id = ?", booking);
+
+        maintainer.maintain();
+
+        assertFalse(database.exists(emptied));
+        assertTrue(database.exists(kept));
+    }
+
+    @Test
+    void maintain_whenBookingsNotPartitioned_thenNothingDone() {
+        database.reset();
+        database.createBaselineSchema();
+        database.migrate();
+
+        maintainer.maintain();
+
+        assertFalse(database.isPartitioned("bookings"));
+        assertFalse(database.exists(PARTITION_NAME.format(YearMonth.now())));
+    }
+
+    private long insertBooking(LocalDateTime start) {
+        return jdbcTemplate.queryForObject("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                        + "VALUES (?, ?, 1, 1, 'APPROVED') RETURNING booking_id", Long.class,
+                Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+    }
+
+    private List<Long> bookingIds(String table) {
+        return jdbcTemplate.queryForList("SELECT booking_id FROM " + table + " ORDER BY booking_id", Long.class);
+    }
+}
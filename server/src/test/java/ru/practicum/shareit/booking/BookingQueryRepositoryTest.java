@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class BookingQueryRepositoryTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private EntityManager entityManager;
+    private final LocalDateTime now = LocalDateTime.of(2030, 6, 1, 12, 0);
+    private User owner;
+    private User booker;
+    private Booking past;
+    private Booking current;
+    private Booking waiting;
+    private Booking rejected;
+    private Booking foreign;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("query-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("query-booker@ya.ru").build());
+        User other = userRepository.save(User.builder().name("other").email("query-other@ya.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        Item otherItem = itemRepository.save(Item.builder().name("saw").description("s").available(true).owner(other).build());
+        past = save(item, booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        current = save(item, booker, now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        waiting = save(otherItem, booker, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        rejected = save(item, booker, now.plusDays(3), now.plusDays(4), BookingStatus.REJECTED);
+        foreign = save(item, other, now.plusDays(5), now.plusDays(6), BookingStatus.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findViews_thenEachStateEvaluatedAgainstSameNow() {
+        assertEquals(ids(rejected, waiting, current, past), findForBooker(BookingState.ALL));
+        assertEquals(ids(current), findForBooker(BookingState.CURRENT));
+        assertEquals(ids(past), findForBooker(BookingState.PAST));
+        assertEquals(ids(rejected, waiting), findForBooker(BookingState.FUTURE));
+        assertEquals(ids(waiting), findForBooker(BookingState.WAITING));
+        assertEquals(ids(rejected), findForBooker(BookingState.REJECTED));
+        assertEquals(ids(foreign), views(bookingRepository.findViews(BookingParty.OWNER, owner.getId(),
+                BookingState.WAITING, now, null, 0, 10)));
+    }
+
+    @Test
+    void findViews_whenOffsetOrCursor_thenContinuesKeysetOrder() {
+        assertEquals(ids(current, past), views(bookingRepository.findViews(BookingParty.BOOKER, booker.getId(),
+                BookingState.ALL, now, null, 2, 10)));
+        BookingCursor cursor = new BookingCursor(waiting.getStart(), waiting.getId());
+        assertEquals(ids(current), views(bookingRepository.findViews(BookingParty.BOOKER, booker.getId(),
+                BookingState.ALL, now, cursor, 0, 1)));
+    }
+
+    @Test
+    void findViews_thenFlatProjectionFilled() {
+        BookingView view = bookingRepository.findViews(BookingParty.OWNER, owner.getId(), BookingState.PAST, now, null, 0, 10).get(0);
+
+        assertEquals(new BookingView(past.getId(), past.getStart(), past.getEnd(), BookingStatus.APPROVED,
+                past.getItem().getId(), "drill", "d", true, owner.getId(), "owner", "query-owner@ya.ru",
+                null, null, null, null, null, null, booker.getId(), "booker", "query-booker@ya.ru"), view);
+    }
+
+    @Test
+    void countByState_thenCountsEveryStateInOneQuery() {
+        assertEquals(Map.of(BookingState.ALL, 4L, BookingState.CURRENT, 1L, BookingState.PAST, 1L,
+                        BookingState.FUTURE, 2L, BookingState.WAITING, 1L, BookingState.REJECTED, 1L),
+                bookingRepository.countByState(BookingParty.BOOKER, booker.getId(), now));
+        assertEquals(Map.of(BookingState.ALL, 4L, BookingState.CURRENT, 1L, BookingState.PAST, 1L,
+                        BookingState.FUTURE, 2L, BookingState.WAITING, 1L, BookingState.REJECTED, 1L),
+                bookingRepository.countByState(BookingParty.OWNER, owner.getId(), now));
+    }
+
+    @Test
+    void countByState_whenNoBookings_thenZeros() {
+        Map<BookingState, Long> counts = bookingRepository.countByState(BookingParty.OWNER, booker.getId(), now);
+
+        assertEquals(6, counts.size());
+        counts.values().forEach(count -> assertEquals(0L, count));
+    }
+
+    private Booking save(Item item, User user, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder().item(item).booker(user).start(start).end(end).status(status).build());
+    }
+
+    private List<Long> findForBooker(BookingState state) {
+        return views(bookingRepository.findViews(BookingParty.BOOKER, booker.getId(), state, now, null, 0, 10));
+    }
+
+    private static List<Long> views(List<BookingView> views) {
+        return views.stream().map(BookingView::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(Booking... bookings) {
+        return List.of(bookings).stream().map(Booking::getId).collect(Collectors.toList());
+    }
+}
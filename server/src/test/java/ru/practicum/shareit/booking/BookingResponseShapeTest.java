@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Фиксирует форму ответа с бронированием: вещь отдаётся вместе с владельцем и запросом,
+ * на {@code item.owner.id} опирается нагрузочный тест.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class BookingResponseShapeTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int ITEM_FIELDS = 6;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    private final LocalDateTime now = LocalDateTime.now();
+    private User owner;
+    private User requestor;
+    private User booker;
+    private ItemRequest request;
+    private Item requestedItem;
+    private Item plainItem;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("shape-owner@ya.ru").build());
+        requestor = userRepository.save(User.builder().name("requestor").email("shape-requestor@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("shape-booker@ya.ru").build());
+        request = requestRepository.save(ItemRequest.builder().description("need a drill")
+                .requestor(requestor).created(now.minusDays(1)).build());
+        requestedItem = itemRepository.save(Item.builder().name("drill").description("d").available(true)
+                .owner(owner).request(request).build());
+        plainItem = itemRepository.save(Item.builder().name("saw").description("s").available(true)
+                .owner(owner).build());
+    }
+
+    @SneakyThrows
+    @Test
+    void findById_thenItemWithOwnerAndRequest() {
+        Booking booking = save(requestedItem);
+
+        assertShape(mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header(SHARER_USER_ID_HEADER, booker.getId()))
+                .andExpect(status().isOk()), "$");
+    }
+
+    @SneakyThrows
+    @Test
+    void findAllByState_thenItemWithOwnerAndRequest() {
+        save(requestedItem);
+
+        assertShape(mvc.perform(get("/bookings")
+                        .header(SHARER_USER_ID_HEADER, booker.getId()))
+                .andExpect(status().isOk()), "$[0]");
+        assertShape(mvc.perform(get("/bookings/owner")
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk()), "$[0]");
+    }
+
+    @SneakyThrows
+    @Test
+    void save_thenItemWithOwnerAndRequest() {
+        BookingRequestDto requestDto = BookingRequestDto.builder()
+                .itemId(requestedItem.getId())
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .build();
+
+        assertShape(mvc.perform(post("/bookings")
+                        .header(SHARER_USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk()), "$");
+    }
+
+    @SneakyThrows
+    @Test
+    void findById_whenItemWithoutRequest_thenRequestNull() {
+        Booking booking = save(plainItem);
+
+        mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.*", hasSize(ITEM_FIELDS)))
+                .andExpect(jsonPath("$.item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath("$.item.request").value(nullValue()));
+    }
+
+    @SneakyThrows
+    private void assertShape(ResultActions result, String booking) {
+        result.andExpect(jsonPath(booking + ".item.*", hasSize(ITEM_FIELDS)))
+                .andExpect(jsonPath(booking + ".item.id").value(requestedItem.getId()))
+                .andExpect(jsonPath(booking + ".item.name").value("drill"))
+                .andExpect(jsonPath(booking + ".item.description").value("d"))
+                .andExpect(jsonPath(booking + ".item.available").value(true))
+                .andExpect(jsonPath(booking + ".item.owner.id").value(owner.getId()))
+                .andExpect(jsonPath(booking + ".item.owner.name").value("owner"))
+                .andExpect(jsonPath(booking + ".item.owner.email").value("shape-owner@ya.ru"))
+                .andExpect(jsonPath(booking + ".item.request.id").value(request.getId()))
+                .andExpect(jsonPath(booking + ".item.request.description").value("need a drill"))
+                .andExpect(jsonPath(booking + ".item.request.created").value(notNullValue()))
+                .andExpect(jsonPath(booking + ".item.request.requestor.id").value(requestor.getId()))
+                .andExpect(jsonPath(booking + ".item.request.requestor.email").value("shape-requestor@ya.ru"))
+                .andExpect(jsonPath(booking + ".booker.id").value(booker.getId()));
+    }
+
+    private Booking save(Item item) {
+        return bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.WAITING)
+                .start(now.plusDays(3)).end(now.plusDays(4)).build());
+    }
+}
@@ -3,13 +3,18 @@ package ru.practicum.shareit.booking;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.EntityNotExistException;
 import ru.practicum.shareit.exception.UnavailableError;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemBookingSummaryService;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
@@ -17,12 +22,18 @@ import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +44,10 @@ class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private UserService userService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
     @InjectMocks
     private BookingServiceImpl bookingService;
     private LocalDateTime start;
@@ -110,7 +125,7 @@ class BookingServiceTest {
     void save_whenInputValid_thenBookingDto() {
 
         when(userService.findById(bookerId)).thenReturn(bookerDto);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenAnswer(
                 invocationOnMock -> {
                     Booking booking = invocationOnMock.getArgument(0, Booking.class);
@@ -122,7 +137,7 @@ class BookingServiceTest {
         BookingDto savedBookingDto = bookingService.save(bookingRequestDto, bookerId);
 
         verify(userService, times(1)).findById(anyLong());
-        verify(itemRepository, times(1)).findById(any());
+        verify(itemRepository, times(1)).findWithOwnerAndRequestById(any());
         assertEquals(bookingDto.toString(), savedBookingDto.toString());
 
     }
@@ -131,11 +146,11 @@ class BookingServiceTest {
     void save_whenBookingRequestDtoItemIdInvalid_thenEntityNotExist() {
 
         when(userService.findById(bookerId)).thenReturn(bookerDto);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotExistException.class, () -> bookingService.save(bookingRequestDto, bookerId));
         verify(userService, times(1)).findById(anyLong());
-        verify(itemRepository, times(1)).findById(any());
+        verify(itemRepository, times(1)).findWithOwnerAndRequestById(any());
         verify(bookingRepository, never()).save(any());
 
     }
@@ -150,15 +165,67 @@ class BookingServiceTest {
                 .available(false)
                 .build();
         when(userService.findById(bookerId)).thenReturn(bookerDto);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.of(item));
 
         assertThrows(UnavailableError.class, () -> bookingService.save(bookingRequestDto, bookerId));
         verify(userService, times(1)).findById(anyLong());
-        verify(itemRepository, times(1)).findById(any());
+        verify(itemRepository, times(1)).findWithOwnerAndRequestById(any());
+        verify(bookingRepository, never()).save(any());
+
+    }
+
+    @Test
+    void save_whenItemAlreadyBooked_thenUnavailableError() {
+
+        when(userService.findById(bookerId)).thenReturn(bookerDto);
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.of(item));
+        doThrow(UnavailableError.class).when(bookingIntervalIndex).reserve(itemId, start, end);
+
+        assertThrows(UnavailableError.class, () -> bookingService.save(bookingRequestDto, bookerId));
         verify(bookingRepository, never()).save(any());
 
     }
 
+    @Test
+    void save_whenRepositoryFails_thenReleaseInterval() {
+
+        when(userService.findById(bookerId)).thenReturn(bookerDto);
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any())).thenThrow(IllegalStateException.class);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(IllegalStateException.class, () -> bookingService.save(bookingRequestDto, bookerId));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookingIntervalIndex, times(1)).reserve(itemId, start, end);
+        verify(bookingIntervalIndex, times(1)).release(itemId, start, end);
+
+    }
+
+    @Test
+    void save_whenTransactionNotCommitted_thenReleaseInterval() {
+
+        when(userService.findById(bookerId)).thenReturn(bookerDto);
+        when(itemRepository.findWithOwnerAndRequestById(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.save(bookingRequestDto, bookerId);
+            verify(bookingIntervalIndex, never()).release(any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookingIntervalIndex, times(1)).release(itemId, start, end);
+
+    }
+
     @Test
     void update_whenInputValidAndApprovedIsTrue_thenBookingDto() {
 
@@ -174,6 +241,8 @@ class BookingServiceTest {
         assertEquals(bookingDto.getItem(), updatedBookingDto.getItem());
         verify(bookingRepository, times(1)).findById(any());
         verify(bookingRepository, times(1)).save(any());
+        verify(itemBookingSummaryService, only()).onApproved(argThat(bookings -> bookings.size() == 1
+                && bookings.iterator().next().getId().equals(bookingId)), any(LocalDateTime.class));
 
     }
 
@@ -186,15 +255,52 @@ class BookingServiceTest {
         BookingDto updatedBookingDto = bookingService.update(ownerId, bookingId, false);
 
         assertEquals(updatedBookingDto.getStatus(), BookingStatus.REJECTED);
+        verify(bookingIntervalIndex, times(1)).release(itemId, start, end);
         assertEquals(bookingDto.getId(), updatedBookingDto.getId());
         assertEquals(bookingDto.getStart(), updatedBookingDto.getStart());
         assertEquals(bookingDto.getEnd(), updatedBookingDto.getEnd());
         assertEquals(bookingDto.getItem(), updatedBookingDto.getItem());
         verify(bookingRepository, times(1)).findById(any());
         verify(bookingRepository, times(1)).save(any());
+        verifyNoInteractions(itemBookingSummaryService);
 
     }
 
+    @Test
+    void update_whenRejectedInTransaction_thenReleaseOnlyAfterCommit() {
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(BookingMapper.toBooking(bookingDto)));
+        when(bookingRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0, Booking.class));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.update(ownerId, bookingId, false);
+            verify(bookingIntervalIndex, never()).release(any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookingIntervalIndex, times(1)).release(itemId, start, end);
+
+    }
+
+    @Test
+    void updateAll_whenRejectedAndRolledBack_thenNotReleased() {
+        Booking waiting = Booking.builder().id(1L).item(item).start(start).end(end).status(BookingStatus.WAITING).build();
+        when(bookingRepository.lockAllWithItemByIdIn(any())).thenReturn(List.of(waiting));
+        when(bookingRepository.updateStatus(Set.of(1L), BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.updateAll(ownerId, BookingApprovalDto.builder().bookingIds(List.of(1L)).approved(false).build());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookingIntervalIndex, never()).release(any(), any(), any());
+    }
+
     @Test
     void update_whenInvalidBookingId_thenEntityNotExistException() {
 
@@ -283,221 +389,144 @@ class BookingServiceTest {
 
     }
 
-    @Test
-    void findAllByState_whenStateIsCurrent_thenInvokeFindAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void findAllByState_whenOffsetPage_thenFindViewsForBooker(BookingState state) {
+        when(bookingRepository.findViews(eq(BookingParty.BOOKER), eq(bookerId), eq(state), any(), isNull(), eq(4L), eq(2)))
+                .thenReturn(List.of(bookingView()));
 
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.CURRENT, 1L, 1L, 1L);
+        List<BookingDto> bookingDtoList = bookingService.findAllByState(state, bookerId, 5L, 2L);
 
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
+        assertEquals(1, bookingDtoList.size());
         assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, times(1))
-                .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(any(), any());
-
+        verify(userService, times(1)).findById(bookerId);
     }
 
-    @Test
-    void findAllByState_whenStateIsPast_thenInvokeFindAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void findAllByOwner_whenOffsetPage_thenFindViewsForOwner(BookingState state) {
+        when(bookingRepository.findViews(eq(BookingParty.OWNER), eq(ownerId), eq(state), any(), isNull(), eq(0L), eq(10)))
+                .thenReturn(List.of(bookingView()));
 
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.PAST, 1L, 1L, 1L);
+        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(state, ownerId, 3L, 10L);
 
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
         assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(any(), any());
-
     }
 
     @Test
-    void findAllByState_whenStateIsFuture_thenInvokeFindAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
+    void findAllByState_whenCursor_thenFindViewsAfterCursorWithoutOffset() {
+        BookingCursor cursor = new BookingCursor(end, 10L);
+        when(bookingRepository.findViews(eq(BookingParty.BOOKER), eq(bookerId), eq(BookingState.CURRENT), any(), eq(cursor), eq(0L), eq(1)))
+                .thenReturn(List.of(bookingView()));
 
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.FUTURE, 1L, 1L, 1L);
+        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.CURRENT, bookerId, cursor, 1L);
 
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
         assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(any(), any());
-
     }
 
     @Test
-    void findAllByState_whenStateIsWaiting_thenInvokeFindAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
+    void findAllByOwner_whenCursor_thenFindViewsAfterCursorWithoutOffset() {
+        BookingCursor cursor = new BookingCursor(end, 10L);
+        when(bookingRepository.findViews(eq(BookingParty.OWNER), eq(ownerId), eq(BookingState.WAITING), any(), eq(cursor), eq(0L), eq(1)))
+                .thenReturn(List.of(bookingView()));
 
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.WAITING, 1L, 1L, 1L);
+        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.WAITING, ownerId, cursor, 1L);
 
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
         assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(any(), any());
-
     }
 
     @Test
-    void findAllByState_whenStateIsRejected_thenInvokeFindAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.REJECTED, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdOrderByStartDesc(any(), any());
+    void findAllByState_whenUserNotExist_thenEntityNotExistException() {
+        when(userService.findById(300L)).thenThrow(new EntityNotExistException("User not found"));
 
+        assertThrows(EntityNotExistException.class, () -> bookingService.findAllByState(BookingState.ALL, 300L, 0L, 10L));
+        verify(bookingRepository, never()).findViews(any(), any(), any(), any(), any(), anyLong(), anyInt());
     }
 
     @Test
-    void findAllByState_whenStateIsAll_thenInvokeFindAllByBookerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByState(BookingState.ALL, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByBookerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByBookerIdOrderByStartDesc(any(), any());
+    void countByState_thenSingleAggregateQuery() {
+        Map<BookingState, Long> counts = Map.of(BookingState.ALL, 3L, BookingState.PAST, 2L);
+        when(bookingRepository.countByState(eq(BookingParty.OWNER), eq(ownerId), any())).thenReturn(counts);
 
+        assertEquals(counts, bookingService.countByState(BookingParty.OWNER, ownerId));
+        verify(userService, times(1)).findById(ownerId);
+        verify(bookingRepository, times(1)).countByState(any(), any(), any());
     }
 
-    @Test
-    void findAllByOwner_whenStateIsCurrent_thenInvokeFindAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.CURRENT, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, times(1))
-                .findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdOrderByStartDesc(any(), any());
-
-    }
-
-    @Test
-    void findAllByOwner_whenStateIsPast_thenInvokeFindAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.PAST, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdOrderByStartDesc(any(), any());
-
+    private BookingView bookingView() {
+        return new BookingView(bookingId, start, end, BookingStatus.WAITING,
+                item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                owner.getId(), owner.getName(), owner.getEmail(), null, null, null, null, null, null,
+                booker.getId(), booker.getName(), booker.getEmail());
     }
 
     @Test
-    void findAllByOwner_whenStateIsFuture_thenInvokeFindAllByItemOwnerIdAndStartIsAfterOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.FUTURE, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdOrderByStartDesc(any(), any());
-
+    void updateAll_whenMixedBookings_thenSingleUpdateAndPerIdResults() {
+        Item foreignItem = Item.builder().id(2L).owner(booker).build();
+        Booking waiting = Booking.builder().id(1L).item(item).start(start).end(end).status(BookingStatus.WAITING).build();
+        Booking foreign = Booking.builder().id(2L).item(foreignItem).start(start).end(end).status(BookingStatus.WAITING).build();
+        Booking approved = Booking.builder().id(3L).item(item).start(start).end(end).status(BookingStatus.APPROVED).build();
+        when(bookingRepository.lockAllWithItemByIdIn(any())).thenReturn(List.of(waiting, foreign, approved));
+        when(bookingRepository.updateStatus(Set.of(1L), BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+
+        List<BookingApprovalResultDto> results = bookingService.updateAll(ownerId,
+                BookingApprovalDto.builder().bookingIds(List.of(1L, 2L, 3L, 4L, 1L)).approved(true).build());
+
+        assertEquals(List.of(
+                BookingApprovalResultDto.builder().bookingId(1L)
+                        .outcome(BookingApprovalResultDto.Outcome.UPDATED).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(2L)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_FOUND).build(),
+                BookingApprovalResultDto.builder().bookingId(3L)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_WAITING).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(4L)
+                        .outcome(BookingApprovalResultDto.Outcome.NOT_FOUND).build()), results);
+        verify(bookingRepository, times(1)).updateStatus(any(), any(), any());
+        verify(bookingRepository, never()).save(any());
+        verify(bookingIntervalIndex, never()).release(any(), any(), any());
+        verify(itemBookingSummaryService, only()).onApproved(eq(List.of(waiting)), any(LocalDateTime.class));
     }
 
     @Test
-    void findAllByOwner_whenStateIsWaiting_thenInvokeFindAllByItemOwnerIdAndStatusOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.WAITING, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdOrderByStartDesc(any(), any());
-
+    void updateAll_whenRejectedAndOneChangedConcurrently_thenReleaseOnlyUpdated() {
+        Booking first = Booking.builder().id(1L).item(item).start(start).end(end).status(BookingStatus.WAITING).build();
+        Booking second = Booking.builder().id(2L).item(item).start(end).end(end.plusMinutes(1))
+                .status(BookingStatus.APPROVED).build();
+        when(bookingRepository.lockAllWithItemByIdIn(any())).thenReturn(List.of(first, second));
+        when(bookingRepository.updateStatus(Set.of(1L), BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BookingApprovalResultDto> results = bookingService.updateAll(ownerId,
+                BookingApprovalDto.builder().bookingIds(List.of(1L, 2L)).approved(false).build());
+
+        assertEquals(BookingApprovalResultDto.Outcome.UPDATED, results.get(0).getOutcome());
+        assertEquals(BookingApprovalResultDto.Outcome.NOT_WAITING, results.get(1).getOutcome());
+        assertEquals(BookingStatus.APPROVED, results.get(1).getStatus());
+        verify(bookingIntervalIndex, times(1)).release(itemId, start, end);
+        verifyNoInteractions(itemBookingSummaryService);
     }
 
     @Test
-    void findAllByOwner_whenStateIsRejected_thenInvokeFindAllByItemOwnerIdAndStatusOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
+    void updateAll_whenRejectedConcurrentlyToSameStatus_thenNotWaitingAndNotReleased() {
+        Booking rejected = Booking.builder().id(1L).item(item).start(start).end(end).status(BookingStatus.REJECTED).build();
+        when(bookingRepository.lockAllWithItemByIdIn(any())).thenReturn(List.of(rejected));
 
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.REJECTED, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdOrderByStartDesc(any(), any());
+        List<BookingApprovalResultDto> results = bookingService.updateAll(ownerId,
+                BookingApprovalDto.builder().bookingIds(List.of(1L)).approved(false).build());
 
+        assertEquals(List.of(BookingApprovalResultDto.builder().bookingId(1L)
+                .outcome(BookingApprovalResultDto.Outcome.NOT_WAITING).status(BookingStatus.REJECTED).build()), results);
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+        verify(bookingIntervalIndex, never()).release(any(), any(), any());
     }
 
     @Test
-    void findAllByOwner_whenStateIsAll_thenInvokeFindAllByItemOwnerIdOrderByStartDesc() {
-
-        when(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(any(), any()))
-                .thenReturn(List.of(BookingMapper.toBooking(bookingDto)));
-
-        List<BookingDto> bookingDtoList = bookingService.findAllByOwner(BookingState.ALL, 1L, 1L, 1L);
-
-        assertEquals(List.of(bookingDto).size(), bookingDtoList.size());
-        assertEquals(bookingDto.toString(), bookingDtoList.get(0).toString());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(any(), any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStatusOrderByStartDesc(any(), any(), any());
-        verify(bookingRepository, times(1)).findAllByItemOwnerIdOrderByStartDesc(any(), any());
-
+    void updateAll_whenLockedRowsNotAllUpdated_thenIllegalStateException() {
+        Booking waiting = Booking.builder().id(1L).item(item).start(start).end(end).status(BookingStatus.WAITING).build();
+        when(bookingRepository.lockAllWithItemByIdIn(any())).thenReturn(List.of(waiting));
+        when(bookingRepository.updateStatus(Set.of(1L), BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(0);
+        BookingApprovalDto approval = BookingApprovalDto.builder().bookingIds(List.of(1L)).approved(false).build();
+
+        assertThrows(IllegalStateException.class, () -> bookingService.updateAll(ownerId, approval));
+        verify(bookingIntervalIndex, never()).release(any(), any(), any());
     }
-}
\ No newline at end of file
+}
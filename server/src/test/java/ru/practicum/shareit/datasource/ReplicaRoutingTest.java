@@ -0,0 +1,175 @@
+package ru.practicum.shareit.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.UnavailableError;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemDto;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Основная БД и реплика — две независимые базы H2 с одной схемой. Реплика не получает изменений,
+ * поэтому чтение с неё видно по отсутствию только что записанных строк.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:routing-primary")
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PrimaryPins primaryPins;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        registry.add("shareit.datasource.replica.url", () -> REPLICA_URL);
+    }
+
+    @Test
+    void findAll_whenReadOnly_thenReadsReplica() {
+        userService.save(UserDto.builder().name("user").email("replica-user@ya.ru").build());
+
+        assertFalse(emails(userService.findAll()).contains("replica-user@ya.ru"));
+    }
+
+    @Test
+    void findAll_whenUserPinned_thenReadsPrimary() {
+        UserDto user = userService.save(UserDto.builder().name("user").email("pinned-user@ya.ru").build());
+        primaryPins.pin(user.getId());
+        PrimaryPins.bindUser(user.getId());
+        try {
+            assertTrue(emails(userService.findAll()).contains("pinned-user@ya.ru"));
+        } finally {
+            PrimaryPins.unbindUser();
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void findAllByOwner_whenOwnWriteBefore_thenReadsPrimary() {
+        UserDto owner = userService.save(UserDto.builder().name("owner").email("routing-owner@ya.ru").build());
+        ItemDto itemDto = ItemDto.builder().name("drill").description("desc").available(true).build();
+        mvc.perform(get("/items")
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        assertFalse(primaryPins.isPinned(owner.getId()));
+
+        mvc.perform(post("/items")
+                        .header(SHARER_USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(itemDto)))
+                .andExpect(status().isOk());
+
+        assertTrue(primaryPins.isPinned(owner.getId()));
+        mvc.perform(get("/items")
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("drill"));
+    }
+
+    @Test
+    void findById_whenNotCached_thenLoadsFromPrimary() {
+        UserDto user = userService.save(UserDto.builder().name("user").email("cached-user@ya.ru").build());
+
+        assertEquals("cached-user@ya.ru", userService.findById(user.getId()).getEmail());
+    }
+
+    @SneakyThrows
+    @Test
+    void patchById_whenNoHeader_thenPathUserPinned() {
+        UserDto user = userService.save(UserDto.builder().name("user").email("patched-user@ya.ru").build());
+        assertFalse(primaryPins.isPinned(user.getId()));
+
+        mvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(UserDto.builder().name("renamed").build())))
+                .andExpect(status().isOk());
+
+        assertTrue(primaryPins.isPinned(user.getId()));
+    }
+
+    @Test
+    void preHandle_whenWrite_thenPinnedBeforeHandler() {
+        PrimaryPinInterceptor interceptor = new PrimaryPinInterceptor(primaryPins);
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/items/1");
+        request.addHeader(SHARER_USER_ID_HEADER, "424242");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        try {
+            assertTrue(primaryPins.isPinned(424242L));
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+        }
+    }
+
+    @Test
+    void warmUp_thenReadsPrimary() {
+        User owner = userRepository.save(User.builder().name("owner").email("warm-up-owner@ya.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("warm-up-booker@ya.ru").build());
+        Item item = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                .start(start).end(start.plusDays(1)).build());
+
+        bookingIntervalIndex.warmUp();
+
+        assertThrows(UnavailableError.class,
+                () -> bookingIntervalIndex.reserve(item.getId(), start.plusHours(1), start.plusHours(2)));
+    }
+
+    private static List<String> emails(List<UserDto> users) {
+        return users.stream().map(UserDto::getEmail).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private InMemoryItemSearchIndex searchIndex;
+    private final Item drill = item(1L, "Дрель", "Простая дрель", true);
+    private final Item screwdriver = item(2L, "Отвертка", "Аккумуляторная отвертка, не дрель", true);
+    private final Item saw = item(3L, "Пила", "Дрель не нужна", false);
+
+    @Test
+    void search_whenTermsMatch_thenRankedAvailableItems() {
+        List.of(drill, screwdriver, saw).forEach(searchIndex::index);
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(screwdriver, drill));
+
+        List<Item> found = searchIndex.search("дРелЬ", 0, 10);
+
+        assertEquals(List.of(drill, screwdriver), found);
+    }
+
+    @Test
+    void search_whenPrefixOfAllTerms_thenItemFound() {
+        List.of(drill, screwdriver).forEach(searchIndex::index);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+
+        List<Item> found = searchIndex.search("аккум отв", 0, 10);
+
+        assertEquals(List.of(screwdriver), found);
+    }
+
+    @Test
+    void search_whenItemBecameUnavailable_thenNotFound() {
+        searchIndex.index(drill);
+        searchIndex.index(item(1L, "Дрель", "Простая дрель", false));
+
+        List<Item> found = searchIndex.search("дрель", 0, 10);
+
+        assertTrue(found.isEmpty());
+        verify(itemRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void search_whenPaged_thenSkipFirstResults() {
+        List.of(drill, screwdriver).forEach(searchIndex::index);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+
+        List<Item> found = searchIndex.search("дрель", 1, 1);
+
+        assertEquals(List.of(screwdriver), found);
+    }
+
+    @Test
+    void search_whenOnlySeparators_thenEmptyList() {
+        assertEquals(Collections.emptyList(), searchIndex.search(" ,.", 0, 10));
+    }
+
+    @Test
+    void warmUp_whenItemsExist_thenIndexed() {
+        when(itemRepository.findAll()).thenReturn(List.of(drill));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+
+        searchIndex.warmUp();
+
+        assertEquals(List.of(drill), searchIndex.search("простая", 0, 10));
+    }
+
+    private static Item item(Long id, String name, String description, Boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingApprovalDto;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class ItemBookingSummaryServiceTest {
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
+    private LocalDateTime now;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setup() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = userRepository.save(User.builder().name("owner").email("summary-owner@ya.ru").build());
+        booker = userRepository.save(User.builder().name("booker").email("summary-booker@ya.ru").build());
+        Long itemId = itemService.save(ItemDto.builder().name("drill").description("desc").available(true).build(),
+                owner.getId()).getId();
+        item = itemRepository.findById(itemId).orElseThrow();
+    }
+
+    @Test
+    void update_whenApprovedOutOfOrder_thenSummaryKeepsLatestPastAndEarliestFuture() {
+        Booking farFuture = booking(now.plusDays(2), BookingStatus.WAITING);
+        Booking farPast = booking(now.minusDays(2), BookingStatus.WAITING);
+        Booking nearFuture = booking(now.plusDays(1), BookingStatus.WAITING);
+        Booking nearPast = booking(now.minusDays(1), BookingStatus.WAITING);
+        Booking rejected = booking(now.plusHours(1), BookingStatus.WAITING);
+
+        bookingService.update(owner.getId(), farFuture.getId(), true);
+        bookingService.update(owner.getId(), farPast.getId(), true);
+        bookingService.update(owner.getId(), nearFuture.getId(), true);
+        bookingService.update(owner.getId(), nearPast.getId(), true);
+        bookingService.update(owner.getId(), rejected.getId(), false);
+        bookingService.update(owner.getId(), booking(now.minusDays(3), BookingStatus.WAITING).getId(), true);
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(nearPast.getId(), summary.getLast().getBookingId());
+        assertEquals(booker.getId(), summary.getLast().getBookerId());
+        assertEquals(nearFuture.getId(), summary.getNext().getBookingId());
+        assertEquals(nearFuture.getStart(), summary.getNext().getStart());
+    }
+
+    @Test
+    void updateAll_whenApproved_thenSummaryUpdated() {
+        Booking past = booking(now.minusDays(1), BookingStatus.WAITING);
+        Booking future = booking(now.plusDays(1), BookingStatus.WAITING);
+
+        bookingService.updateAll(owner.getId(), BookingApprovalDto.builder()
+                .bookingIds(List.of(past.getId(), future.getId())).approved(true).build());
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(past.getId(), summary.getLast().getBookingId());
+        assertEquals(future.getId(), summary.getNext().getBookingId());
+    }
+
+    @Test
+    void rollForward_whenNextBookingStarted_thenNextBecomesLast() {
+        Booking first = booking(now.plusDays(1), BookingStatus.WAITING);
+        Booking second = booking(now.plusDays(3), BookingStatus.WAITING);
+        bookingService.update(owner.getId(), first.getId(), true);
+        bookingService.update(owner.getId(), second.getId(), true);
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime later = now.plusDays(2);
+
+        assertTrue(summaryService.rollForward(later) >= 1);
+        assertEquals(0, summaryService.rollForward(later));
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(first.getId(), summary.getLast().getBookingId());
+        assertEquals(second.getId(), summary.getNext().getBookingId());
+        assertTrue(summary.isActual(later));
+    }
+
+    @Test
+    void rollForward_whenItemHasNoSummary_thenCreatesItFromBookings() {
+        Item legacyItem = itemRepository.save(Item.builder().name("saw").description("desc").available(true)
+                .owner(owner).build());
+        Booking past = bookingRepository.save(Booking.builder().item(legacyItem).booker(booker)
+                .status(BookingStatus.APPROVED).start(now.minusDays(1)).end(now.minusHours(1)).build());
+        entityManager.flush();
+
+        assertTrue(summaryService.rollForward(now) >= 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = summaryRepository.findById(legacyItem.getId()).orElseThrow();
+        assertEquals(past.getId(), summary.getLast().getBookingId());
+        assertNull(summary.getNext());
+    }
+
+    private Booking booking(LocalDateTime start, BookingStatus status) {
+        Booking booking = bookingRepository.save(Booking.builder().item(item).booker(booker).status(status)
+                .start(start).end(start.plusHours(2)).build());
+        entityManager.flush();
+        return booking;
+    }
+}
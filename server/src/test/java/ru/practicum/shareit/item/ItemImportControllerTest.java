@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.EntityNotExistException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemImportController.class)
+class ItemImportControllerTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    @MockBean
+    private ItemImportService itemImportService;
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importItems_whenNdjson_thenWritesResultPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<List<ItemImportResultDto>> results = invocation.getArgument(3);
+            results.accept(List.of(
+                    ItemImportResultDto.builder().line(1L).status(ItemImportResultDto.Status.CREATED).id(10L).build(),
+                    ItemImportResultDto.builder().line(2L).status(ItemImportResultDto.Status.INVALID).error("name must not be blank").build()));
+            return null;
+        }).when(itemImportService).importItems(eq(1L), eq(true), any(), any());
+
+        mvc.perform(post("/items/import")
+                        .header(SHARER_USER_ID_HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":1,\"status\":\"CREATED\",\"id\":10}\n"
+                        + "{\"line\":2,\"status\":\"INVALID\",\"error\":\"name must not be blank\"}\n"));
+    }
+
+    @Test
+    void importItems_whenOwnerNotExist_thenNotFound() throws Exception {
+        doThrow(new EntityNotExistException("User not found"))
+                .when(itemImportService).importItems(eq(1L), anyBoolean(), any(), any());
+
+        mvc.perform(post("/items/import")
+                        .header(SHARER_USER_ID_HEADER, 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EntityNotExistException;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "shareit.item-import.batch-size=2")
+@Transactional
+class ItemImportServiceTest {
+    @Autowired
+    private ItemImportService itemImportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private EntityManager entityManager;
+    private User owner;
+    private ItemRequest request;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("import-owner@ya.ru").build());
+        User requestor = userRepository.save(User.builder().name("requestor").email("import-requestor@ya.ru").build());
+        request = requestRepository.save(ItemRequest.builder().description("need a drill").requestor(requestor)
+                .created(LocalDateTime.now()).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void importItems_whenNdjson_thenReportsEachLineAndInsertsValidItems() throws Exception {
+        String body = "{\"name\":\"drill\",\"description\":\"cordless drill\",\"available\":true,\"requestId\":" + request.getId() + "}\n"
+                + "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n"
+                + "\n"
+                + "{\"name\":\"saw\",\"description\":\n"
+                + "{\"name\":\"hammer\",\"description\":\"steel\",\"available\":false,\"requestId\":999}\n"
+                + "{\"name\":\"ladder\",\"description\":\"ladderimport\",\"available\":true}\n";
+        List<List<ItemImportResultDto>> batches = new ArrayList<>();
+
+        itemImportService.importItems(owner.getId(), true, stream(body), batches::add);
+
+        List<ItemImportResultDto> results = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(ItemImportResultDto::getLine).collect(Collectors.toList()));
+        assertEquals(List.of(ItemImportResultDto.Status.CREATED, ItemImportResultDto.Status.INVALID, ItemImportResultDto.Status.INVALID,
+                        ItemImportResultDto.Status.INVALID, ItemImportResultDto.Status.CREATED),
+                results.stream().map(ItemImportResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals("name must not be blank", results.get(1).getError());
+        assertTrue(results.get(2).getError().startsWith("Malformed JSON"));
+        assertEquals("ItemRequest with id=999 is not exist", results.get(3).getError());
+
+        entityManager.clear();
+        Item drill = itemRepository.findById(results.get(0).getId()).orElseThrow();
+        assertEquals("drill", drill.getName());
+        assertEquals(owner.getId(), drill.getOwner().getId());
+        assertEquals(request.getId(), drill.getRequest().getId());
+        assertEquals(List.of(results.get(4).getId()), itemSearchIndex.search("ladderimport", 0, 10).stream()
+                .map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void importItems_whenJsonArray_thenFlushesResultsByBatch() throws Exception {
+        String body = "[\n"
+                + "  {\"name\":\"drill\",\"description\":\"d\",\"available\":true},\n"
+                + "  {\"name\":\"saw\",\"description\":\"s\",\"available\":\"maybe\"},\n"
+                + "  {\"name\":\"hammer\",\"description\":\"h\",\"available\":true}\n"
+                + "]";
+        List<List<ItemImportResultDto>> batches = new ArrayList<>();
+
+        itemImportService.importItems(owner.getId(), false, stream(body), batches::add);
+
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(ItemImportResultDto.Status.CREATED, batches.get(0).get(0).getStatus());
+        assertEquals(2L, batches.get(0).get(0).getLine());
+        assertEquals(ItemImportResultDto.Status.INVALID, batches.get(0).get(1).getStatus());
+        assertEquals(ItemImportResultDto.Status.CREATED, batches.get(1).get(0).getStatus());
+        assertEquals(4L, batches.get(1).get(0).getLine());
+    }
+
+    @Test
+    void importItems_whenArrayIsTruncated_thenImportsParsedItemsAndReportsError() throws Exception {
+        String body = "[{\"name\":\"drill\",\"description\":\"d\",\"available\":true},\n{\"name\":\"saw\"";
+        List<List<ItemImportResultDto>> batches = new ArrayList<>();
+
+        itemImportService.importItems(owner.getId(), false, stream(body), batches::add);
+
+        List<ItemImportResultDto> results = batches.stream().flatMap(List::stream).collect(Collectors.toList());
+        assertEquals(2, results.size());
+        assertNotNull(results.get(0).getId());
+        assertEquals(ItemImportResultDto.Status.INVALID, results.get(1).getStatus());
+        assertEquals(2L, results.get(1).getLine());
+        assertTrue(results.get(1).getError().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    void importItems_whenOwnerNotExist_thenThrowsBeforeReporting() {
+        List<List<ItemImportResultDto>> batches = new ArrayList<>();
+
+        assertThrows(EntityNotExistException.class,
+                () -> itemImportService.importItems(-1L, true, stream("{}\n"), batches::add));
+        assertTrue(batches.isEmpty());
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
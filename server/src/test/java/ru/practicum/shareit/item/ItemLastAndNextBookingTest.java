@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бронирования с одинаковым началом: и сводка, и запрос по таблице бронирований выбирают по одному
+ * бронированию на сторону, последним — с большим id, ближайшим — с меньшим.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class ItemLastAndNextBookingTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private EntityManager entityManager;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private User owner;
+    private Item item;
+    private Booking firstPast;
+    private Booking secondPast;
+    private Booking firstFuture;
+    private Booking secondFuture;
+
+    @BeforeEach
+    void setup() {
+        owner = userRepository.save(User.builder().name("owner").email("same-start-owner@ya.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("same-start-booker@ya.ru").build());
+        item = itemRepository.save(Item.builder().name("drill").description("d").available(true).owner(owner).build());
+        firstPast = save(booker, now.minusDays(2), now.minusDays(1));
+        secondPast = save(booker, now.minusDays(2), now.minusHours(1));
+        firstFuture = save(booker, now.plusDays(1), now.plusDays(2));
+        secondFuture = save(booker, now.plusDays(1), now.plusDays(3));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findLastAndNextByItemIdIn_whenSameStart_thenOneBookingPerSide() {
+        List<Booking> bookings = bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()),
+                BookingStatus.APPROVED, now);
+
+        assertEquals(2, bookings.size());
+    }
+
+    @SneakyThrows
+    @Test
+    void findById_whenBookingsStartTogetherAndNoSummary_thenTieBrokenById() {
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.id").value(secondPast.getId()))
+                .andExpect(jsonPath("$.nextBooking.id").value(firstFuture.getId()));
+    }
+
+    @SneakyThrows
+    @Test
+    void findById_whenBookingsStartTogetherAndSummaryRolled_thenSameTieBreak() {
+        summaryService.rollForward(now);
+        entityManager.flush();
+        entityManager.clear();
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header(SHARER_USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastBooking.id").value(secondPast.getId()))
+                .andExpect(jsonPath("$.nextBooking.id").value(firstFuture.getId()));
+    }
+
+    @Test
+    void onApproved_whenBookingsStartTogether_thenSameTieBreak() {
+        summaryService.createEmpty(List.of(item.getId()));
+        for (Booking booking : List.of(secondPast, firstPast, secondFuture, firstFuture)) {
+            summaryService.onApproved(bookingRepository.findAllWithItemByIdIn(List.of(booking.getId())), now);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemBookingSummary summary = entityManager.find(ItemBookingSummary.class, item.getId());
+        assertEquals(secondPast.getId(), summary.getLast().getBookingId());
+        assertEquals(firstFuture.getId(), summary.getNext().getBookingId());
+    }
+
+    private Booking save(User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                .start(start).end(end).build());
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Считает SQL-запросы, которые выполняет сервис вещей, по статистике Hibernate.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ItemServiceQueryCountTest {
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(User.builder().name("owner").email("owner@ya.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@ya.ru").build());
+        item = itemRepository.save(Item.builder().name("drill").description("desc").available(true).owner(owner).build());
+        for (int i = 1; i <= 3; i++) {
+            bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.minusDays(10L * i)).end(now.minusDays(10L * i - 1)).build());
+            bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.plusDays(10L * i)).end(now.plusDays(10L * i + 1)).build());
+            commentRepository.save(Comment.builder().item(item).author(booker).text("comment " + i).build());
+        }
+        userService.findById(owner.getId());
+        entityManager.flush();
+        summaryService.rollForward(now);
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_whenOwnerRequests_thenItemWithSummaryAndCommentsInTwoStatements() {
+
+        ItemDto itemDto = itemService.findById(item.getId(), owner.getId());
+
+        assertNotNull(itemDto.getLastBooking());
+        assertNotNull(itemDto.getNextBooking());
+        assertEquals(3, itemDto.getComments().size());
+        assertEquals(0, statistics.getEntityStatistics(Booking.class.getName()).getLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_whenNextBookingStarted_thenFallsBackToBookingsWithoutWrites() {
+        Booking started = bookingRepository.findAll().iterator().next();
+        ItemBookingSummary summary = entityManager.find(ItemBookingSummary.class, item.getId());
+        summary.setNext(new BookingPointer(started.getId(), LocalDateTime.now().minusMinutes(1),
+                LocalDateTime.now().plusDays(1), started.getBooker().getId()));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        ItemDto itemDto = itemService.findById(item.getId(), owner.getId());
+        entityManager.flush();
+
+        assertEquals(LocalDateTime.now().plusDays(10).toLocalDate(), itemDto.getNextBooking().getStart().toLocalDate());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void findAllByOwner_whenLongBookingHistory_thenStatementCountDoesNotGrow() {
+        User booker = userRepository.save(User.builder().name("regular").email("regular@ya.ru").build());
+        Item secondItem = itemRepository.save(Item.builder().name("saw").description("desc").available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= 50; i++) {
+            bookingRepository.save(Booking.builder().item(secondItem).booker(booker).status(BookingStatus.APPROVED)
+                    .start(now.minusDays(i * 2L)).end(now.minusDays(i * 2L - 1)).build());
+        }
+        entityManager.flush();
+        summaryService.rollForward(now);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<ItemDto> itemDtos = itemService.findAllByOwner(owner.getId(), 0L, 10L);
+
+        assertEquals(List.of(item.getId(), secondItem.getId()), itemDtos.stream().map(ItemDto::getId).collect(Collectors.toList()));
+        assertEquals(now.minusDays(2).toLocalDate(), itemDtos.get(1).getLastBooking().getStart().toLocalDate());
+        assertNull(itemDtos.get(1).getNextBooking());
+        assertEquals(3, itemDtos.get(0).getComments().size());
+        assertEquals(0, statistics.getEntityStatistics(Booking.class.getName()).getLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,10 +6,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.ArchivedBooking;
+import ru.practicum.shareit.booking.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.Booking;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.EntityNotExistException;
 import ru.practicum.shareit.exception.IncorrectOwnerException;
 import ru.practicum.shareit.request.ItemRequest;
@@ -19,14 +21,18 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +48,12 @@ class ItemServiceTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository requestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemBookingSummaryService summaryService;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -144,6 +156,8 @@ class ItemServiceTest {
         verify(userService, only()).findById(1L);
         verify(itemRepository, only()).save(any());
         verify(requestRepository, never()).findById(anyLong());
+        verify(summaryService, only()).createEmpty(List.of(1L));
+        verify(itemSearchIndex, only()).index(any());
     }
 
     @Test
@@ -231,6 +245,7 @@ class ItemServiceTest {
         assertEquals(savedItemDto.toString(), testSavedItemDto.toString());
         verify(itemRepository, times(1)).findById(anyLong());
         verify(itemRepository, times(1)).save(any());
+        verify(itemSearchIndex, times(1)).index(any());
 
     }
 
@@ -309,54 +324,67 @@ class ItemServiceTest {
                         .bookerId(nextBooking.getBooker().getId())
                         .build())
                 .build();
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.findWithSummaryById(1L))
+                .thenReturn(Optional.of(itemWithSummary(item, summary(lastBooking, nextBooking))));
         when(userService.findById(1L)).thenReturn(userDto);
         when(commentRepository.findAllByItemId(item.getId())).thenReturn(Collections.emptyList());
-        when(bookingRepository.findFirst1ByItemIdAndStartLessThanAndStatusOrderByStartDesc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class)))
-                .thenReturn(Optional.of(lastBooking));
-        when(bookingRepository.findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class)))
-                .thenReturn(Optional.of(nextBooking));
 
         ItemDto testItemDto = itemService.findById(1L, 1L);
 
         assertEquals(savedItemDto.toString(), testItemDto.toString());
-        verify(itemRepository, only()).findById(1L);
+        verify(itemRepository, only()).findWithSummaryById(1L);
         verify(userService, only()).findById(1L);
         verify(commentRepository, only()).findAllByItemId(item.getId());
-        verify(bookingRepository, times(1)).findFirst1ByItemIdAndStartLessThanAndStatusOrderByStartDesc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class));
-        verify(bookingRepository, times(1)).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class));
+        verifyNoInteractions(bookingRepository, summaryService);
+    }
+
+    @Test
+    void findById_whenNextBookingStarted_thenSummaryRecalculatedWithoutSaving() {
+        Booking startedBooking = Booking.builder()
+                .id(3L)
+                .start(start.plusSeconds(30))
+                .end(end.plusSeconds(30))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build();
+        ItemBookingSummary staleSummary = summary(lastBooking, startedBooking);
+        when(itemRepository.findWithSummaryById(1L)).thenReturn(Optional.of(itemWithSummary(item, staleSummary)));
+        when(userService.findById(1L)).thenReturn(userDto);
+        doAnswer(invocationOnMock -> {
+            Collection<ItemBookingSummary> summaries = invocationOnMock.getArgument(0);
+            summaries.forEach(summary -> summary.recalculate(List.of(startedBooking, nextBooking), invocationOnMock.getArgument(1)));
+            return null;
+        }).when(summaryService).recalculate(any(), any(LocalDateTime.class));
+
+        ItemDto testItemDto = itemService.findById(1L, 1L);
+
+        assertEquals(startedBooking.getId(), testItemDto.getLastBooking().getId());
+        assertEquals(nextBooking.getId(), testItemDto.getNextBooking().getId());
+        assertEquals(startedBooking.getId(), staleSummary.getNext().getBookingId());
+    }
+
+    @Test
+    void findById_whenNotOwner_thenWithoutBookings() {
+        when(itemRepository.findWithSummaryById(1L))
+                .thenReturn(Optional.of(itemWithSummary(item, summary(lastBooking, nextBooking))));
+        when(userService.findById(2L)).thenReturn(userDto);
+
+        ItemDto testItemDto = itemService.findById(1L, 2L);
+
+        assertNull(testItemDto.getLastBooking());
+        assertNull(testItemDto.getNextBooking());
     }
 
     @Test
     void findById_whenInvalidItemId_thenItemDto() {
 
-        when((itemRepository.findById(anyLong()))).thenReturn(Optional.empty());
+        when(itemRepository.findWithSummaryById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotExistException.class,
                 () -> itemService.findById(300L, 1L));
-        verify(itemRepository, only()).findById(300L);
         verify(userService, never()).findById(1L);
         verify(commentRepository, never()).findAllByItemId(item.getId());
-        verify(bookingRepository, never()).findFirst1ByItemIdAndStartLessThanAndStatusOrderByStartDesc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class));
-        verify(bookingRepository, never()).findFirst1ByItemIdAndStartGreaterThanEqualAndStatusOrderByStartAsc(
-                anyLong(),
-                any(LocalDateTime.class),
-                any(BookingStatus.class));
 
     }
 
@@ -383,23 +411,50 @@ class ItemServiceTest {
                         .build())
                 .comments(Collections.emptyList())
                 .build();
-        when(itemRepository.findByOwnerId(eq(user.getId()), any())).thenReturn(List.of(item));
-        when(bookingRepository.findAllByItemOwnerIdOrderByStart(user.getId())).thenReturn(List.of(lastBooking, nextBooking));
-        when(commentRepository.findAllByItemIn(List.of(item))).thenReturn(Collections.emptyList());
+        when(itemRepository.findWithSummaryByOwnerId(eq(user.getId()), any()))
+                .thenReturn(List.of(itemWithSummary(item, summary(lastBooking, nextBooking))));
+        when(commentRepository.findAllByItemIdIn(List.of(item.getId()))).thenReturn(Collections.emptyList());
 
         List<ItemDto> itemDtoList = itemService.findAllByOwner(user.getId(), 0L, 10L);
 
         assertEquals(List.of(itemDto).size(), itemDtoList.size());
         assertEquals(itemDto.toString(), itemDtoList.get(0).toString());
+        verifyNoInteractions(bookingRepository, summaryService);
+    }
+
+    @Test
+    void findAllByOwner_whenSummaryMissing_thenRecalculatedForMissingOnly() {
+        Item secondItem = Item.builder().id(2L).name("saw").description("desc").owner(user).available(true).build();
+        when(itemRepository.findWithSummaryByOwnerId(eq(user.getId()), any()))
+                .thenReturn(List.of(itemWithSummary(item, summary(lastBooking, nextBooking)), itemWithSummary(secondItem, null)));
+        when(commentRepository.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.findAllByOwner(user.getId(), 0L, 10L);
 
+        assertEquals(2, itemDtoList.size());
+        assertEquals(nextBooking.getId(), itemDtoList.get(0).getNextBooking().getId());
+        assertNull(itemDtoList.get(1).getLastBooking());
+        verify(summaryService, only()).recalculate(argThat(summaries -> summaries.size() == 1
+                && summaries.iterator().next().getItemId().equals(2L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    void findAllByOwner_whenNoItems_thenEmptyListWithoutBookingQuery() {
+
+        when(itemRepository.findWithSummaryByOwnerId(eq(user.getId()), any())).thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.findAllByOwner(user.getId(), 0L, 10L);
+
+        assertEquals(0, itemDtoList.size());
+        verifyNoInteractions(bookingRepository, commentRepository, summaryService);
     }
 
     @Test
     void search_whenInputValid_thenListOfItem() {
-        when(itemRepository.findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(anyString(), anyString(), any(Pageable.class)))
+        when(itemSearchIndex.search("text", 10, 5))
                 .thenReturn(List.of(item));
 
-        List<ItemDto> itemListDto = itemService.search("text", 0L, 10L);
+        List<ItemDto> itemListDto = itemService.search("text", 12L, 5L);
 
         assertEquals(List.of(savedItemDto).toString(), itemListDto.toString());
     }
@@ -410,7 +465,7 @@ class ItemServiceTest {
         List<ItemDto> itemListDto = itemService.search("", 0L, 10L);
 
         assertEquals(Collections.emptyList().toString(), itemListDto.toString());
-        verify(itemRepository, never()).findAllByNameOrDescriptionContainingIgnoreCaseAndAvailableTrue(anyString(), anyString(), any());
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -423,7 +478,8 @@ class ItemServiceTest {
         CommentDto inputCommentDto = CommentDto.builder()
                 .text("text")
                 .build();
-        when(bookingRepository.findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(anyLong(), anyLong(), any(), any()))
+        when(bookingRepository.findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(anyLong(), anyLong(),
+                any(), any(), any()))
                 .thenReturn(Optional.of(lastBooking));
         when(commentRepository.save(any())).thenAnswer(invocationOnMock -> {
                     Comment savedCcomment = invocationOnMock.getArgument(0, Comment.class);
@@ -437,7 +493,69 @@ class ItemServiceTest {
         assertEquals(commentDto.getId(), savedCommentDto.getId());
         assertEquals(commentDto.getText(), savedCommentDto.getText());
         assertEquals(commentDto.getAuthorName(), savedCommentDto.getAuthorName());
+        verify(archivedBookingRepository, never()).findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(anyLong(), anyLong(),
+                any(), any());
+    }
 
+    @Test
+    void addComment_whenBookingArchived_thenCommentSaved() {
+        CommentDto inputCommentDto = CommentDto.builder()
+                .text("text")
+                .build();
+        ArchivedBooking archivedBooking = ArchivedBooking.builder()
+                .id(lastBooking.getId())
+                .item(item)
+                .booker(booker)
+                .start(lastBooking.getStart())
+                .end(lastBooking.getEnd())
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(bookingRepository.findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(anyLong(), anyLong(),
+                any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(archivedBookingRepository.findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(anyLong(), anyLong(), any(),
+                any()))
+                .thenReturn(Optional.of(archivedBooking));
+        when(commentRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+
+        CommentDto savedCommentDto = itemService.addComment(booker.getId(), item.getId(), inputCommentDto);
+
+        assertEquals("text", savedCommentDto.getText());
+        assertEquals(booker.getName(), savedCommentDto.getAuthorName());
+    }
+
+    @Test
+    void addComment_whenNoFinishedBooking_thenThrow() {
+        when(bookingRepository.findFirst1ByBookerIdAndItemIdAndStartBeforeAndEndBeforeAndStatus(anyLong(), anyLong(),
+                any(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(archivedBookingRepository.findFirst1ByBookerIdAndItemIdAndEndBeforeAndStatus(anyLong(), anyLong(), any(),
+                any()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(BadRequestException.class,
+                () -> itemService.addComment(booker.getId(), item.getId(), CommentDto.builder().text("text").build()));
+        verify(commentRepository, never()).save(any());
+    }
+
+    private static ItemBookingSummary summary(Booking lastBooking, Booking nextBooking) {
+        ItemBookingSummary summary = new ItemBookingSummary(lastBooking.getItem().getId());
+        summary.setLast(BookingPointer.of(lastBooking));
+        summary.setNext(BookingPointer.of(nextBooking));
+        return summary;
+    }
 
+    private static ItemWithSummary itemWithSummary(Item item, ItemBookingSummary summary) {
+        return new ItemWithSummary() {
+            @Override
+            public Item getItem() {
+                return item;
+            }
+
+            @Override
+            public ItemBookingSummary getSummary() {
+                return summary;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private PostgresItemSearchIndex searchIndex;
+
+    @Test
+    void search_whenText_thenPrefixTsQuery() {
+        Item item = Item.builder().id(1L).build();
+        when(itemRepository.searchAvailableByTsQuery("дрель:* & bosch:*", 0, 10)).thenReturn(List.of(item));
+
+        List<Item> found = searchIndex.search("Дрель, BOSCH!", 0, 10);
+
+        assertEquals(List.of(item), found);
+    }
+
+    @Test
+    void search_whenNoTerms_thenNoQuery() {
+        assertTrue(searchIndex.search("&|!", 0, 10).isEmpty());
+        verify(itemRepository, never()).searchAvailableByTsQuery(anyString(), anyInt(), anyInt());
+    }
+}
@@ -25,4 +25,24 @@ class ItemRequestTest {
         assertEquals(request, request1);
         assertNotEquals(request, request2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHashCode() {
+        ItemRequest request = ItemRequest.builder()
+                .id(1L)
+                .build();
+        ItemRequest request1 = ItemRequest.builder()
+                .id(1L)
+                .build();
+        ItemRequest request2 = ItemRequest.builder()
+                .id(2L)
+                .build();
+        ItemRequest transientRequest = ItemRequest.builder()
+                .build();
+
+        assertEquals(request.hashCode(), request1.hashCode());
+        assertNotEquals(request.hashCode(), request2.hashCode());
+        assertEquals(transientRequest.hashCode(), transientRequest.hashCode());
+        assertNotEquals(transientRequest, ItemRequest.builder().build());
+    }
+}
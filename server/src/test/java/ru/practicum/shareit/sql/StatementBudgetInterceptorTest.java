@@ -0,0 +1,61 @@
+package ru.practicum.shareit.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StringUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Превышение бюджета на настоящем пути: запросы Hibernate считает {@link StatementCounter},
+ * интерцептор увеличивает {@code shareit.sql.budget.exceeded} на каждый запрос и пишет в лог не чаще {@code log-interval}.
+ */
+@SpringBootTest(properties = {
+        "shareit.statement-budget.endpoints.GET.[/users]=0",
+        "shareit.statement-budget.log-interval=1h"
+})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class StatementBudgetInterceptorTest {
+    private static final String BUDGET_EXCEEDED_LOG = "GET /users executed 1 SQL statements (budget 0)";
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void afterCompletion_whenBudgetExceeded_thenCountedEveryTimeAndLoggedOncePerInterval(CapturedOutput output)
+            throws Exception {
+        mvc.perform(get("/users")).andExpect(status().isOk());
+        mvc.perform(get("/users")).andExpect(status().isOk());
+
+        assertEquals(2, meterRegistry.get("shareit.sql.budget.exceeded")
+                .tags("method", "GET", "uri", "/users")
+                .counter()
+                .count());
+        assertEquals(1, StringUtils.countOccurrencesOf(output.getOut(), BUDGET_EXCEEDED_LOG), output::getOut);
+    }
+
+    @Test
+    void afterCompletion_whenWithinBudget_thenNotCounted() throws Exception {
+        mvc.perform(get("/users/{userId}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        assertEquals(0, meterRegistry.find("shareit.sql.budget.exceeded")
+                .tags("uri", "/users/{userId}")
+                .counters()
+                .size());
+        assertEquals(1, meterRegistry.get("shareit.sql.statements")
+                .tags("method", "GET", "uri", "/users/{userId}")
+                .summary()
+                .count());
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.sql;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет, что эндпоинты укладываются в бюджет SQL-запросов из {@code shareit.statement-budget}.
+ * Каждая коллекция содержит несколько строк с разными связанными сущностями, поэтому N+1 выходит за бюджет.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetTest {
+    private static final String SHARER_USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int ROWS = 5;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private StatementBudgetProperties properties;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    private User owner;
+    private User requestor;
+    private Item item;
+    private ItemRequest request;
+    private Booking booking;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(User.builder().name("owner").email("budget-owner@ya.ru").build());
+        requestor = userRepository.save(User.builder().name("requestor").email("budget-requestor@ya.ru").build());
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker" + i).email("budget-booker" + i + "@ya.ru").build()));
+        }
+        for (int i = 0; i < ROWS; i++) {
+            request = requestRepository.save(ItemRequest.builder().description("request " + i)
+                    .requestor(requestor).created(now.minusDays(i)).build());
+            item = itemRepository.save(Item.builder().name("item " + i).description("desc").available(true)
+                    .owner(owner).request(request).build());
+            for (int j = 0; j < ROWS; j++) {
+                User booker = bookers.get(j);
+                booking = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                        .status(BookingStatus.APPROVED)
+                        .start(now.minusDays(10L * (j + 1))).end(now.minusDays(10L * (j + 1) - 1)).build());
+                commentRepository.save(Comment.builder().item(item).author(booker).text("comment " + j).build());
+            }
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void users() throws Exception {
+        assertWithinBudget(get("/users"));
+        assertWithinBudget(get("/users/{userId}", owner.getId()));
+    }
+
+    @Test
+    void items() throws Exception {
+        assertWithinBudget(get("/items").header(SHARER_USER_ID_HEADER, owner.getId()));
+        assertWithinBudget(get("/items/{itemId}", item.getId()).header(SHARER_USER_ID_HEADER, owner.getId()));
+    }
+
+    @Test
+    void requests() throws Exception {
+        assertWithinBudget(get("/requests").header(SHARER_USER_ID_HEADER, requestor.getId()));
+        assertWithinBudget(get("/requests/all").header(SHARER_USER_ID_HEADER, owner.getId()));
+        assertWithinBudget(get("/requests/{requestId}", request.getId()).header(SHARER_USER_ID_HEADER, owner.getId()));
+    }
+
+    @Test
+    void bookings() throws Exception {
+        assertWithinBudget(get("/bookings/{bookingId}", booking.getId()).header(SHARER_USER_ID_HEADER, owner.getId()));
+        for (String state : List.of("ALL", "PAST")) {
+            assertWithinBudget(get("/bookings").param("state", state)
+                    .header(SHARER_USER_ID_HEADER, booking.getBooker().getId()));
+            assertWithinBudget(get("/bookings/owner").param("state", state)
+                    .header(SHARER_USER_ID_HEADER, owner.getId()));
+        }
+        assertWithinBudget(get("/bookings/summary").header(SHARER_USER_ID_HEADER, booking.getBooker().getId()));
+        assertWithinBudget(get("/bookings/owner/summary").header(SHARER_USER_ID_HEADER, owner.getId()));
+    }
+
+    private void assertWithinBudget(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mvc.perform(requestBuilder).andExpect(status().isOk()).andReturn();
+        String method = result.getRequest().getMethod();
+        String pattern = (String) result.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        int count = (int) result.getRequest().getAttribute(StatementBudgetInterceptor.STATEMENT_COUNT_ATTRIBUTE);
+        int budget = properties.budgetFor(method, pattern);
+        assertTrue(properties.getEndpoints().getOrDefault(method, Map.of()).containsKey(pattern),
+                () -> String.format("No statement budget configured for %s %s", method, pattern));
+        assertTrue(count <= budget,
+                () -> String.format("%s %s executed %d SQL statements, budget is %d", method, pattern, count, budget));
+    }
+}
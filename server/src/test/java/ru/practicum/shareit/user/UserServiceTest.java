@@ -1,17 +1,21 @@
 package ru.practicum.shareit.user;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.EntityNotExistException;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -20,7 +24,9 @@ import static org.mockito.Mockito.*;
 class UserServiceTest {
     @Mock
     private UserRepository userRepository;
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private Cache<Long, UserDto> userCache;
     private UserServiceImpl userService;
     private User user;
     private UserDto userDto;
@@ -32,6 +38,8 @@ class UserServiceTest {
 
     @BeforeEach
     void setup() {
+        userCache = Caffeine.newBuilder().build();
+        userService = new UserServiceImpl(userRepository, userCache, transactionManager, Optional.empty());
         user = User.builder()
                 .id(1L)
                 .name("name")
@@ -248,21 +256,73 @@ class UserServiceTest {
     @Test
     void checkIfUserExists_whenUserExist_thenNothing() {
 
-        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
 
-        userService.checkIfUserExists(anyLong());
-        verify(userRepository, only()).existsById(anyLong());
+        userService.checkIfUserExists(1L);
+        verify(userRepository, only()).findById(1L);
 
     }
 
     @Test
     void checkIfUserExists_whenUserNotExist_thenEntityNotExistException() {
 
-        when(userRepository.existsById(anyLong())).thenReturn(false);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(EntityNotExistException.class,
-                () -> userService.checkIfUserExists(anyLong()));
-        verify(userRepository, only()).existsById(anyLong());
+                () -> userService.checkIfUserExists(300L));
+        verify(userRepository, only()).findById(300L);
+        assertNull(userCache.getIfPresent(300L));
+
+    }
+
+    @Test
+    void checkIfUserExists_whenUserCached_thenNoRepositoryCall() {
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.findById(1L);
+        userService.checkIfUserExists(1L);
+        userService.checkIfUserExists(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findById_whenReadOnlyTransactionWithoutReplica_thenCached() {
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            userService.findById(1L);
+            userService.findById(1L);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void patchById_whenUserCached_thenCacheInvalidated() {
+
+        userCache.put(1L, savedUserDto);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0, User.class));
+
+        userService.patchById(1L, patchUserDto);
+
+        assertNull(userCache.getIfPresent(1L));
+        assertEquals(patchedUserDto, userService.findById(1L));
+    }
+
+    @Test
+    void deleteById_whenUserCached_thenCacheInvalidated() {
+
+        userCache.put(1L, savedUserDto);
+
+        userService.deleteById(1L);
 
+        assertNull(userCache.getIfPresent(1L));
     }
-}
\ No newline at end of file
+}